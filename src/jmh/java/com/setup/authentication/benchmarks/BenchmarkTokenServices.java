@@ -0,0 +1,42 @@
+package com.setup.authentication.benchmarks;
+
+import com.setup.authentication.config.ReadYourWritesGuard;
+import com.setup.authentication.repositories.RevokedAccessTokenRepository;
+import com.setup.authentication.repositories.UserRepository;
+import com.setup.authentication.security.AccessTokenDenylist;
+import com.setup.authentication.security.AccessTokenSigningKeys;
+import com.setup.authentication.security.TokenService;
+import com.setup.authentication.security.TokenVersionCache;
+import com.setup.authentication.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.mockito.Mockito;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * TokenService wired without a Spring context, with the default local secrets.
+ */
+final class BenchmarkTokenServices {
+
+    static final String ACCESS_SECRET = "secret";
+
+    private BenchmarkTokenServices() {
+    }
+
+    static TokenService create(boolean verifiedTokenCache) {
+        // every user is at token version 0
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findTokenVersionById(Mockito.any(UUID.class))).thenReturn(0);
+
+        return new TokenService(
+                new VerifiedTokenCache(verifiedTokenCache, 10_000, new SimpleMeterRegistry()),
+                new AccessTokenDenylist(Mockito.mock(RevokedAccessTokenRepository.class), 10_000, 0.01, Duration.ofSeconds(10)),
+                new TokenVersionCache(userRepository, new ReadYourWritesGuard(Duration.ofSeconds(5), 10_000), 10_000, Duration.ofSeconds(30), new SimpleMeterRegistry()),
+                new AccessTokenSigningKeys(AccessTokenSigningKeys.SigningAlgorithm.HS256, "", "", new DefaultResourceLoader()),
+                ACCESS_SECRET, "refreshSecret", "emailSecret", "passwordResetSecret", 15, 10080,
+                Duration.ofDays(1), true, ObservationRegistry.NOOP);
+    }
+}
@@ -0,0 +1,74 @@
+package com.setup.authentication.benchmarks;
+
+import com.setup.authentication.config.ReadYourWritesGuard;
+import com.setup.authentication.domain.entities.Role;
+import com.setup.authentication.domain.entities.User;
+import com.setup.authentication.repositories.UserRepository;
+import com.setup.authentication.security.AuthenticatedUser;
+import com.setup.authentication.security.SecurityFilter;
+import com.setup.authentication.security.TokenService;
+import com.setup.authentication.security.UserCredentials;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.servlet.FilterChain;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs SecurityFilter over a no-op filter chain with a stubbed repository,
+ * with and without trusting the access token claims.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityFilterBenchmark {
+
+    @Param({"false", "true"})
+    private boolean claimsAuthoritative;
+
+    private SecurityFilter securityFilter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private final FilterChain filterChain = (req, res) -> {
+    };
+
+    @Setup
+    public void setup() {
+        TokenService tokenService = BenchmarkTokenServices.create(false);
+
+        LocalDateTime now = LocalDateTime.now();
+        User user = new User(UUID.randomUUID(), "benchmark@example.com", "hash", Role.USER, true, now, now);
+
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findPrincipalByEmail(user.getEmail()))
+                .thenReturn(new AuthenticatedUser(user.getId(), user.getEmail(), Role.USER));
+
+        securityFilter = new SecurityFilter(tokenService, userRepository, new ReadYourWritesGuard(Duration.ofSeconds(5), 10_000), ObservationRegistry.NOOP);
+        ReflectionTestUtils.setField(securityFilter, "claimsAuthoritative", claimsAuthoritative);
+        ReflectionTestUtils.setField(securityFilter, "claimsAuthoritativeWindow", Duration.ofMinutes(5));
+
+        request = new MockHttpServletRequest("GET", "/api/resource");
+        request.addHeader("Authorization", "Bearer " + tokenService.generateToken(UserCredentials.of(user)));
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public void doFilter() throws Exception {
+        try {
+            securityFilter.doFilter(request, response, filterChain);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.setup.authentication.benchmarks;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.SignatureGenerationException;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sign and verify throughput of HS256, ES256 and EdDSA (Ed25519) on the access token shape.
+ * java-jwt has no EdDSA support, so Ed25519 is plugged in as an Algorithm backed by the
+ * JDK Signature API, keeping claim handling identical for the three.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SigningAlgorithmBenchmark {
+
+    private Algorithm hs256;
+    private Algorithm es256;
+    private Algorithm eddsa;
+    private JWTVerifier hs256Verifier;
+    private JWTVerifier es256Verifier;
+    private JWTVerifier eddsaVerifier;
+
+    private String hs256Token;
+    private String es256Token;
+    private String eddsaToken;
+
+    @Setup
+    public void setup() throws Exception {
+        hs256 = Algorithm.HMAC256(BenchmarkTokenServices.ACCESS_SECRET);
+
+        KeyPairGenerator ecGenerator = KeyPairGenerator.getInstance("EC");
+        ecGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair ec = ecGenerator.generateKeyPair();
+        es256 = Algorithm.ECDSA256((ECPublicKey) ec.getPublic(), (ECPrivateKey) ec.getPrivate());
+
+        eddsa = new Ed25519Algorithm(KeyPairGenerator.getInstance("Ed25519").generateKeyPair());
+
+        hs256Verifier = JWT.require(hs256).withIssuer("setup-auth").build();
+        es256Verifier = JWT.require(es256).withIssuer("setup-auth").build();
+        eddsaVerifier = JWT.require(eddsa).withIssuer("setup-auth").build();
+
+        hs256Token = signHs256();
+        es256Token = signEs256();
+        eddsaToken = signEdDsa();
+    }
+
+    @Benchmark
+    public String signHs256() {
+        return accessToken().sign(hs256);
+    }
+
+    @Benchmark
+    public String signEs256() {
+        return accessToken().withKeyId("benchmark").sign(es256);
+    }
+
+    @Benchmark
+    public String signEdDsa() {
+        return accessToken().withKeyId("benchmark").sign(eddsa);
+    }
+
+    @Benchmark
+    public DecodedJWT verifyHs256() {
+        return hs256Verifier.verify(hs256Token);
+    }
+
+    @Benchmark
+    public DecodedJWT verifyEs256() {
+        return es256Verifier.verify(es256Token);
+    }
+
+    @Benchmark
+    public DecodedJWT verifyEdDsa() {
+        return eddsaVerifier.verify(eddsaToken);
+    }
+
+    private com.auth0.jwt.JWTCreator.Builder accessToken() {
+        return JWT.create()
+                .withIssuer("setup-auth")
+                .withSubject("benchmark@example.com")
+                .withJWTId(UUID.randomUUID().toString())
+                .withClaim("uid", UUID.randomUUID().toString())
+                .withClaim("role", "USER")
+                .withClaim("ver", 0)
+                .withIssuedAt(Instant.now())
+                .withExpiresAt(Instant.now().plus(15, ChronoUnit.MINUTES));
+    }
+
+    private static final class Ed25519Algorithm extends Algorithm {
+
+        private final KeyPair keyPair;
+
+        Ed25519Algorithm(KeyPair keyPair) {
+            super("EdDSA", "Ed25519");
+            this.keyPair = keyPair;
+        }
+
+        @Override
+        public void verify(DecodedJWT jwt) throws SignatureVerificationException {
+            try {
+                // a Signature is not thread-safe, one per call like java-jwt does
+                Signature signature = Signature.getInstance("Ed25519");
+                signature.initVerify(keyPair.getPublic());
+                signature.update((jwt.getHeader() + "." + jwt.getPayload()).getBytes(StandardCharsets.US_ASCII));
+                if (!signature.verify(Base64.getUrlDecoder().decode(jwt.getSignature()))) {
+                    throw new SignatureVerificationException(this);
+                }
+            } catch (GeneralSecurityException e) {
+                throw new SignatureVerificationException(this, e);
+            }
+        }
+
+        @Override
+        public byte[] sign(byte[] contentBytes) throws SignatureGenerationException {
+            try {
+                Signature signature = Signature.getInstance("Ed25519");
+                signature.initSign(keyPair.getPrivate());
+                signature.update(contentBytes);
+                return signature.sign();
+            } catch (GeneralSecurityException e) {
+                throw new SignatureGenerationException(this, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.setup.authentication.benchmarks;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.setup.authentication.domain.dto.TokenRequestDTO;
+import com.setup.authentication.domain.entities.Role;
+import com.setup.authentication.security.TokenService;
+import com.setup.authentication.security.UserCredentials;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares signing and verifying access tokens with a fresh Algorithm/JWTVerifier
+ * per call (previous behaviour) against the instances cached by TokenService.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenServiceBenchmark {
+
+    private static final String SECRET = BenchmarkTokenServices.ACCESS_SECRET;
+
+    private TokenService tokenService;
+    private TokenService cachingTokenService;
+    private UserCredentials user;
+    private String token;
+    private String rawSecretToken;
+
+    @Setup
+    public void setup() {
+        tokenService = BenchmarkTokenServices.create(false);
+
+        user = new UserCredentials(UUID.randomUUID(), "benchmark@example.com", "hash", Role.USER, true, 0);
+        token = tokenService.generateToken(user);
+        // signed with the raw secret, tokens from TokenService use a derived key (see SigningKeyRing)
+        rawSecretToken = generatePerCallAlgorithm();
+
+        cachingTokenService = BenchmarkTokenServices.create(true);
+        cachingTokenService.validateToken(token);
+    }
+
+    @Benchmark
+    public String generatePerCallAlgorithm() {
+        Algorithm algorithm = Algorithm.HMAC256(SECRET);
+        return JWT.create()
+                .withIssuer("setup-auth")
+                .withSubject(user.email())
+                .withJWTId(UUID.randomUUID().toString())
+                .withClaim("uid", user.id().toString())
+                .withClaim("role", user.role().toString())
+                .withClaim("ver", 0)
+                .withIssuedAt(Instant.now())
+                .withExpiresAt(Instant.now().plus(15, ChronoUnit.MINUTES))
+                .sign(algorithm);
+    }
+
+    @Benchmark
+    public String generateCachedAlgorithm() {
+        return tokenService.generateToken(user);
+    }
+
+    @Benchmark
+    public String validatePerCallVerifier() {
+        Algorithm algorithm = Algorithm.HMAC256(SECRET);
+        return JWT.require(algorithm)
+                .withIssuer("setup-auth")
+                .build()
+                .verify(rawSecretToken)
+                .getSubject();
+    }
+
+    @Benchmark
+    public TokenRequestDTO validateCachedVerifier() {
+        return tokenService.validateToken(token);
+    }
+
+    @Benchmark
+    public TokenRequestDTO validateVerifiedTokenCacheHit() {
+        return cachingTokenService.validateToken(token);
+    }
+}
@@ -0,0 +1,36 @@
+package com.setup.authentication.benchmarks;
+
+import com.setup.authentication.domain.entities.Role;
+import com.setup.authentication.domain.entities.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserAuthoritiesBenchmark {
+
+    @Param({"USER", "ADMIN"})
+    private Role role;
+
+    private User user;
+
+    @Setup
+    public void setup() {
+        LocalDateTime now = LocalDateTime.now();
+        user = new User(UUID.randomUUID(), "benchmark@example.com", "hash", role, true, now, now);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return user.getAuthorities();
+    }
+}
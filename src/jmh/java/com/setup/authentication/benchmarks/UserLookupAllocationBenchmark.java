@@ -0,0 +1,84 @@
+package com.setup.authentication.benchmarks;
+
+import com.setup.authentication.AuthenticationApplication;
+import com.setup.authentication.domain.dto.RegisterRequestDTO;
+import com.setup.authentication.domain.entities.User;
+import com.setup.authentication.repositories.UserRepository;
+import com.setup.authentication.services.UserService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads one user by email the way authentication did before (managed User entity in a
+ * read-write transaction, so Hibernate keeps a dirty-checking snapshot and flushes on commit)
+ * and does now (UserCredentials projection), against the docker-compose Postgres with caching off.
+ * Compare gc.alloc.rate.norm from the GC profiler (the benchmark profile default), the bytes
+ * allocated per lookup:
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args=UserLookupAllocation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserLookupAllocationBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private String email;
+
+    @Setup
+    public void setup() {
+        SpringApplication application = new SpringApplication(AuthenticationApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        // command line arguments, so they override application.properties
+        context = application.run(
+                "--spring.cache.type=none",
+                "--spring.jpa.show-sql=false",
+                "--spring.mail.username=benchmark@localhost"
+        );
+
+        userRepository = context.getBean(UserRepository.class);
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(context.getBean(EntityManagerFactory.class));
+        // not read-only, like the original lookup; UserRepository.findByEmail is read-only by now
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        UserService userService = context.getBean(UserService.class);
+
+        email = "lookup-" + UUID.randomUUID() + "@example.com";
+        userService.registerUser(userService.createUser(new RegisterRequestDTO(email, "password")));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.getBean(JdbcTemplate.class).update("DELETE FROM users WHERE email = ?", email);
+        context.close();
+    }
+
+    @Benchmark
+    public UserDetails entity() {
+        return transactionTemplate.execute(status -> entityManager
+                .createQuery("SELECT u FROM users u WHERE u.email = :email", User.class)
+                .setParameter("email", email)
+                .getSingleResult());
+    }
+
+    @Benchmark
+    public UserDetails projection() {
+        return userRepository.findCredentialsByEmail(email);
+    }
+}
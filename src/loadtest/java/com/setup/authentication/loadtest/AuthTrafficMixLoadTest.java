@@ -0,0 +1,263 @@
+package com.setup.authentication.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Replays a weighted mix of auth traffic (login, refresh, logout, register and authenticated
+ * requests through SecurityFilter) with a fixed number of concurrent clients, and prints
+ * throughput, latency percentiles and error rate per operation.
+ * <p>
+ * Each client owns one user and its session, so refresh tokens are rotated the way a real
+ * browser would. Authenticated requests hit /actuator/health with the bearer token, which
+ * runs the full token validation in SecurityFilter.
+ * <p>
+ * Setup: docker compose up -d postgres mailpit (Mailpit is the fake SMTP server), then start
+ * the application with LOGIN_RATE_LIMIT_ENABLED=false, all clients share one IP.
+ * <p>
+ * Arguments: baseUrl [mix, e.g. login=30,refresh=20,authenticated=40,logout=5,register=5]
+ * [concurrency] [seconds]
+ */
+public class AuthTrafficMixLoadTest {
+
+    private static final String PASSWORD = "loadtest-password";
+    private static final Pattern ACCESS_TOKEN = Pattern.compile("\"accessToken\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern REFRESH_COOKIE = Pattern.compile("refreshToken=([^;]*)");
+
+    enum Operation {
+        LOGIN, REFRESH, AUTHENTICATED, LOGOUT, REGISTER
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        Map<Operation, Integer> mix = parseMix(args.length > 1 ? args[1] : "login=30,refresh=20,authenticated=40,logout=5,register=5");
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        Duration duration = Duration.ofSeconds(args.length > 3 ? Long.parseLong(args[3]) : 60);
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        System.out.printf("Mix %s, %d clients, %d s against %s%n", mix, concurrency, duration.toSeconds(), baseUrl);
+        Map<Operation, LatencyRecorder> results = run(new Api(client, baseUrl), mix, concurrency, duration);
+        report(results, duration);
+    }
+
+    private static Map<Operation, LatencyRecorder> run(Api api, Map<Operation, Integer> mix, int concurrency, Duration duration) throws Exception {
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        List<Future<Map<Operation, LatencyRecorder>>> workers = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // register every client first so the measured window starts with warm sessions
+            List<Session> sessions = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                Session session = new Session("loadtest-" + UUID.randomUUID() + "@example.com");
+                api.register(session.email);
+                api.login(session);
+                sessions.add(session);
+            }
+
+            long deadline = System.nanoTime() + duration.toNanos();
+            for (Session session : sessions) {
+                workers.add(executor.submit(() -> {
+                    Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+                    for (Operation operation : Operation.values()) {
+                        recorders.put(operation, new LatencyRecorder());
+                    }
+
+                    while (System.nanoTime() < deadline) {
+                        Operation operation = pick(mix, totalWeight);
+                        LatencyRecorder recorder = recorders.get(operation);
+                        long start = System.nanoTime();
+                        try {
+                            if (execute(api, session, operation)) {
+                                recorder.record(System.nanoTime() - start);
+                            } else {
+                                recorder.error();
+                            }
+                        } catch (Exception e) {
+                            recorder.error();
+                        }
+                    }
+                    return recorders;
+                }));
+            }
+
+            Map<Operation, LatencyRecorder> total = new EnumMap<>(Operation.class);
+            for (Operation operation : Operation.values()) {
+                total.put(operation, new LatencyRecorder());
+            }
+            for (Future<Map<Operation, LatencyRecorder>> worker : workers) {
+                worker.get().forEach((operation, recorder) -> total.get(operation).merge(recorder));
+            }
+            return total;
+        }
+    }
+
+    private static boolean execute(Api api, Session session, Operation operation) throws Exception {
+        // operations that need a session log in first when the previous one was logged out
+        if (operation != Operation.LOGIN && operation != Operation.REGISTER && session.refreshToken == null) {
+            api.login(session);
+        }
+
+        return switch (operation) {
+            case LOGIN -> api.login(session);
+            case REFRESH -> api.refresh(session);
+            case AUTHENTICATED -> api.authenticated(session);
+            case LOGOUT -> api.logout(session);
+            case REGISTER -> api.register("loadtest-" + UUID.randomUUID() + "@example.com");
+        };
+    }
+
+    private static Operation pick(Map<Operation, Integer> mix, int totalWeight) {
+        int ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            ticket -= entry.getValue();
+            if (ticket < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty mix");
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix needs at least one operation with a positive weight");
+        }
+        return weights;
+    }
+
+    private static void report(Map<Operation, LatencyRecorder> results, Duration duration) {
+        System.out.printf("%-14s %10s %12s %8s %8s %10s %10s %10s %10s%n",
+                "operation", "requests", "requests/s", "errors", "error %", "p50 ms", "p95 ms", "p99 ms", "max ms");
+
+        LatencyRecorder all = new LatencyRecorder();
+        results.forEach((operation, recorder) -> {
+            all.merge(recorder);
+            print(operation.name().toLowerCase(), recorder, duration);
+        });
+        print("total", all, duration);
+    }
+
+    private static void print(String name, LatencyRecorder recorder, Duration duration) {
+        long requests = recorder.count() + recorder.errors();
+        if (requests == 0) return;
+
+        System.out.printf("%-14s %10d %12.1f %8d %8.2f %10.1f %10.1f %10.1f %10.1f%n",
+                name,
+                requests,
+                requests / (double) duration.toSeconds(),
+                recorder.errors(),
+                recorder.errors() * 100.0 / requests,
+                recorder.percentileMillis(50),
+                recorder.percentileMillis(95),
+                recorder.percentileMillis(99),
+                recorder.percentileMillis(100));
+    }
+
+    /**
+     * Tokens of one client, only touched by the worker that owns it.
+     */
+    private static final class Session {
+
+        final String email;
+        String accessToken;
+        String refreshToken;
+
+        Session(String email) {
+            this.email = email;
+        }
+    }
+
+    private record Api(HttpClient client, String baseUrl) {
+
+        boolean register(String email) throws Exception {
+            return post("/api/auth/register", credentials(email), null).statusCode() / 100 == 2;
+        }
+
+        boolean login(Session session) throws Exception {
+            return updateSession(session, post("/api/auth/login", credentials(session.email), null));
+        }
+
+        boolean refresh(Session session) throws Exception {
+            return updateSession(session, post("/api/auth/refresh-token", refreshBody(session), null));
+        }
+
+        boolean authenticated(Session session) throws Exception {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health"))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Authorization", "Bearer " + session.accessToken)
+                    .GET()
+                    .build();
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        }
+
+        boolean logout(Session session) throws Exception {
+            HttpResponse<String> response = post("/api/auth/logout", refreshBody(session), session.accessToken);
+            session.accessToken = null;
+            session.refreshToken = null;
+            return response.statusCode() == 200;
+        }
+
+        private boolean updateSession(Session session, HttpResponse<String> response) {
+            if (response.statusCode() != 200) {
+                session.accessToken = null;
+                session.refreshToken = null;
+                return false;
+            }
+
+            Matcher accessToken = ACCESS_TOKEN.matcher(response.body());
+            session.accessToken = accessToken.find() ? accessToken.group(1) : null;
+            session.refreshToken = response.headers().allValues("Set-Cookie").stream()
+                    .map(REFRESH_COOKIE::matcher)
+                    .filter(Matcher::find)
+                    .map(matcher -> matcher.group(1))
+                    .findFirst()
+                    .orElse(null);
+            return session.accessToken != null && session.refreshToken != null;
+        }
+
+        private HttpResponse<String> post(String path, String json, String accessToken) throws Exception {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(json));
+            if (accessToken != null) {
+                request.header("Authorization", "Bearer " + accessToken);
+            }
+            return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        }
+
+        private static String credentials(String email) {
+            return "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}";
+        }
+
+        private static String refreshBody(Session session) {
+            return "{\"refreshToken\":\"" + session.refreshToken + "\"}";
+        }
+    }
+}
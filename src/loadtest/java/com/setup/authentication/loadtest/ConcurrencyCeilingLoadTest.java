@@ -0,0 +1,97 @@
+package com.setup.authentication.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Drives /api/auth/login (BCrypt + JDBC, the most blocking endpoint) with increasing
+ * numbers of concurrent clients and prints throughput and latency for each level.
+ * <p>
+ * Run it once against the application started with VIRTUAL_THREADS=false and once with
+ * VIRTUAL_THREADS=true: with platform threads throughput flattens and latency climbs once
+ * the clients exceed server.tomcat.threads.max (200 by default).
+ * All clients share one IP, so start the application with LOGIN_RATE_LIMIT_ENABLED=false.
+ * <p>
+ * Arguments: baseUrl [concurrency levels, e.g. 50,100,200,400,800] [seconds per level]
+ */
+public class ConcurrencyCeilingLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        String[] levels = (args.length > 1 ? args[1] : "50,100,200,400,800").split(",");
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 20);
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        String email = "loadtest-" + UUID.randomUUID() + "@example.com";
+        String credentials = "{\"email\":\"" + email + "\",\"password\":\"loadtest-password\"}";
+        send(client, baseUrl + "/api/auth/register", credentials);
+
+        System.out.printf("%-12s %12s %10s %10s %10s %10s%n", "concurrency", "requests/s", "errors", "p50 ms", "p99 ms", "max ms");
+        for (String level : levels) {
+            int concurrency = Integer.parseInt(level.trim());
+            LatencyRecorder result = run(client, baseUrl + "/api/auth/login", credentials, concurrency, duration);
+            System.out.printf("%-12d %12.1f %10d %10.1f %10.1f %10.1f%n",
+                    concurrency,
+                    result.count() / (double) duration.toSeconds(),
+                    result.errors(),
+                    result.percentileMillis(50),
+                    result.percentileMillis(99),
+                    result.percentileMillis(100));
+        }
+    }
+
+    private static LatencyRecorder run(HttpClient client, String url, String body, int concurrency, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<LatencyRecorder>> workers = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> {
+                    LatencyRecorder recorder = new LatencyRecorder();
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            int status = send(client, url, body);
+                            if (status == 200) {
+                                recorder.record(System.nanoTime() - start);
+                            } else {
+                                recorder.error();
+                            }
+                        } catch (Exception e) {
+                            recorder.error();
+                        }
+                    }
+                    return recorder;
+                }));
+            }
+
+            LatencyRecorder total = new LatencyRecorder();
+            for (Future<LatencyRecorder> worker : workers) {
+                total.merge(worker.get());
+            }
+            return total;
+        }
+    }
+
+    private static int send(HttpClient client, String url, String json) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
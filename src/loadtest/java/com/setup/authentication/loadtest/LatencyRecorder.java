@@ -0,0 +1,52 @@
+package com.setup.authentication.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Per-worker latency samples in nanoseconds. Not thread-safe: each worker owns one
+ * recorder and they are merged once the run is over.
+ */
+final class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int size;
+    private long errors;
+
+    void record(long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+    }
+
+    void error() {
+        errors++;
+    }
+
+    long count() {
+        return size;
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    void merge(LatencyRecorder other) {
+        if (size + other.size > samples.length) {
+            samples = Arrays.copyOf(samples, Math.max(samples.length * 2, size + other.size));
+        }
+        System.arraycopy(other.samples, 0, samples, size, other.size);
+        size += other.size;
+        errors += other.errors;
+    }
+
+    /**
+     * Percentile in milliseconds, 0 < percentile <= 100. Sorts the samples in place.
+     */
+    double percentileMillis(double percentile) {
+        if (size == 0) return 0;
+        Arrays.sort(samples, 0, size);
+        int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        return samples[Math.max(0, Math.min(index, size - 1))] / 1_000_000.0;
+    }
+}
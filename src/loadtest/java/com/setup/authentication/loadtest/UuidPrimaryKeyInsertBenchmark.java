@@ -0,0 +1,110 @@
+package com.setup.authentication.loadtest;
+
+import com.setup.authentication.domain.id.TimeOrderedUuidGenerator;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Inserts the same number of rows, shaped like refresh_tokens, into two scratch tables keyed
+ * by random UUIDv4 and by TimeOrderedUuidGenerator's UUIDv7, and prints insert throughput
+ * and the resulting primary key index size and leaf density.
+ * <p>
+ * Run against the docker-compose Postgres; the scratch tables are dropped afterwards.
+ * Leaf density needs the pgstattuple extension and is skipped without it.
+ * <p>
+ * Arguments: [jdbcUrl] [user] [password] [rows] [batch size]
+ */
+public class UuidPrimaryKeyInsertBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String url = args.length > 0 ? args[0] : "jdbc:postgresql://localhost:5432/mydatabase";
+        String user = args.length > 1 ? args[1] : "root";
+        String password = args.length > 2 ? args[2] : "root";
+        int rows = args.length > 3 ? Integer.parseInt(args[3]) : 1_000_000;
+        int batchSize = args.length > 4 ? Integer.parseInt(args[4]) : 1_000;
+
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            boolean pgstattuple = tryCreatePgstattuple(connection);
+
+            System.out.printf("%-8s %10s %12s %14s %12s%n", "ids", "rows", "rows/s", "pk index MB", "leaf dens %");
+            run(connection, "uuid_bench_v4", "v4", UUID::randomUUID, rows, batchSize, pgstattuple);
+            run(connection, "uuid_bench_v7", "v7", TimeOrderedUuidGenerator::next, rows, batchSize, pgstattuple);
+        }
+    }
+
+    private static void run(Connection connection, String table, String label, Supplier<UUID> ids,
+                            int rows, int batchSize, boolean pgstattuple) throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + table);
+            statement.execute("CREATE TABLE " + table + " (id uuid PRIMARY KEY, token_hash bytea NOT NULL, "
+                    + "user_id uuid NOT NULL, expiry_date timestamptz NOT NULL, revoked boolean NOT NULL)");
+        }
+
+        connection.setAutoCommit(false);
+        long started = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + table + " (id, token_hash, user_id, expiry_date, revoked) VALUES (?, ?, ?, ?, false)")) {
+            byte[] tokenHash = new byte[32];
+            UUID userId = UUID.randomUUID();
+            Timestamp expiry = Timestamp.from(Instant.now().plusSeconds(30L * 24 * 3600));
+
+            for (int i = 1; i <= rows; i++) {
+                insert.setObject(1, ids.get());
+                insert.setBytes(2, tokenHash);
+                insert.setObject(3, userId);
+                insert.setTimestamp(4, expiry);
+                insert.addBatch();
+
+                // one batch per transaction, like the application's short insert transactions
+                if (i % batchSize == 0 || i == rows) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        connection.setAutoCommit(true);
+
+        long indexBytes = queryLong(connection, "SELECT pg_relation_size('" + table + "_pkey')");
+        String density = pgstattuple
+                ? String.format("%.1f", queryDouble(connection, "SELECT avg_leaf_density FROM pgstatindex('" + table + "_pkey')"))
+                : "n/a";
+
+        System.out.printf("%-8s %10d %12.0f %14.1f %12s%n", label, rows, rows / seconds, indexBytes / 1024.0 / 1024.0, density);
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE " + table);
+        }
+    }
+
+    private static boolean tryCreatePgstattuple(Connection connection) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE EXTENSION IF NOT EXISTS pgstattuple");
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static long queryLong(Connection connection, String sql) throws Exception {
+        try (Statement statement = connection.createStatement(); ResultSet result = statement.executeQuery(sql)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+
+    private static double queryDouble(Connection connection, String sql) throws Exception {
+        try (Statement statement = connection.createStatement(); ResultSet result = statement.executeQuery(sql)) {
+            result.next();
+            return result.getDouble(1);
+        }
+    }
+}
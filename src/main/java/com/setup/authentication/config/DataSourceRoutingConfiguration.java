@@ -0,0 +1,90 @@
+package com.setup.authentication.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Primary plus read replicas, replacing the single auto-configured data source when
+ * datasource.replicas.enabled is set. Writes, read-write transactions and work outside a
+ * transaction (schema scripts, Hibernate DDL, partition maintenance) stay on the primary.
+ * Every pool takes the spring.datasource.hikari.* settings, as the auto-configured one would;
+ * only the pool size of the replicas is set separately.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class DataSourceRoutingConfiguration {
+
+    private final Environment environment;
+
+    @Value("${spring.datasource.url}")
+    private String primaryUrl;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Value("${datasource.replicas.urls}")
+    private String replicaUrls;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int primaryPoolSize;
+
+    @Value("${datasource.replicas.maximum-pool-size}")
+    private int replicaPoolSize;
+
+    public DataSourceRoutingConfiguration(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Primary
+    @Bean
+    public DataSource dataSource() {
+        Map<Object, Object> targets = new HashMap<>();
+        HikariDataSource primary = hikari("primary", primaryUrl, primaryPoolSize);
+        targets.put(ReadWriteRoutingDataSource.PRIMARY, primary);
+
+        List<String> replicas = new ArrayList<>();
+        List<String> urls = Arrays.stream(replicaUrls.split(",")).map(String::trim).filter(url -> !url.isEmpty()).toList();
+        for (int i = 0; i < urls.size(); i++) {
+            String key = "replica-" + (i + 1);
+            targets.put(key, hikari(key, urls.get(i), replicaPoolSize));
+            replicas.add(key);
+        }
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(replicas);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private HikariDataSource hikari(String poolName, String url, int maximumPoolSize) {
+        HikariConfig config = new HikariConfig();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(config));
+        config.setPoolName(poolName);
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(maximumPoolSize);
+        return new HikariDataSource(config);
+    }
+}
@@ -0,0 +1,66 @@
+package com.setup.authentication.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Read-your-writes protection for replica reads. Code that writes a user (registration,
+ * password change, token rotation, token version bump) records the user's email or id;
+ * for the configured window, reads keyed by that same email or id are sent to the primary
+ * even inside read-only transactions, so replication lag never makes a fresh write look
+ * missing. Reads keyed by anything else (refresh tokens are read by hash) get no protection
+ * and have to run on the primary themselves.
+ * <p>
+ * Writes are only remembered by the node that made them: a request served by another node
+ * right after the write can still read a stale replica. Set the window above the worst
+ * expected replica lag.
+ */
+@Component
+public class ReadYourWritesGuard {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final Cache<Object, Boolean> recentWrites;
+
+    public ReadYourWritesGuard(
+            @Value("${datasource.replicas.read-your-writes-window}") Duration window,
+            @Value("${datasource.replicas.read-your-writes-max-size}") long maxSize
+    ) {
+        this.recentWrites = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxSize)
+                .build();
+    }
+
+    public void recordWrite(Object key) {
+        if (key != null) {
+            recentWrites.put(key, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Runs the read on the primary when the key was written recently, otherwise wherever
+     * the routing data source sends it.
+     */
+    public <T> T read(Object key, Supplier<T> read) {
+        if (key == null || recentWrites.getIfPresent(key) == null || isPrimaryRequired()) {
+            return read.get();
+        }
+
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+
+    static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+}
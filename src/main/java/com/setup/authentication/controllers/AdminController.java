@@ -0,0 +1,48 @@
+package com.setup.authentication.controllers;
+
+import com.setup.authentication.domain.dto.UserImportReportDTO;
+import com.setup.authentication.services.UserImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+// ADMIN only, see SecurityConfigurations
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String CSV = "text/csv";
+
+    private final UserImportService userImportService;
+
+    public AdminController(UserImportService userImportService) {
+        this.userImportService = userImportService;
+    }
+
+    /**
+     * Bulk user import. The body is streamed, one user per line: NDJSON objects
+     * {"email", "password" or "passwordHash", "role", "verified"}, or CSV with a header row
+     * (email,password,password_hash,role,verified).
+     */
+    @PostMapping(value = "/users/import", consumes = {NDJSON, CSV})
+    public ResponseEntity<UserImportReportDTO> importUsers(
+            @RequestHeader("Content-Type") String contentType,
+            @RequestParam(defaultValue = "true") boolean sendConfirmation,
+            HttpServletRequest request
+    ) throws IOException {
+        UserImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(CSV))
+                ? UserImportService.Format.CSV
+                : UserImportService.Format.NDJSON;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+            return ResponseEntity.ok(userImportService.importUsers(reader, format, sendConfirmation));
+        }
+    }
+}
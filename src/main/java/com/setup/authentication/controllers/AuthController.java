@@ -1,7 +1,11 @@
 package com.setup.authentication.controllers;
 
 import com.setup.authentication.domain.dto.*;
+import com.setup.authentication.exceptions.PasswordHashingUnavailableException;
+import com.setup.authentication.exceptions.TooManyLoginAttemptsException;
+import com.setup.authentication.security.AuthenticatedUser;
 import com.setup.authentication.services.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,9 +14,11 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Duration;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -31,10 +37,12 @@ public class AuthController {
     @PostMapping("/login")
     public ResponseEntity<LoginResponseDTO> login(
             @RequestBody @Valid LoginRequestDTO loginRequestDTO,
+            HttpServletRequest request,
             HttpServletResponse response
     ) {
         try {
-            AuthTokenDTO tokens = authenticationService.login(loginRequestDTO);
+            // behind a proxy, set server.forward-headers-strategy so this is the client address
+            AuthTokenDTO tokens = authenticationService.login(loginRequestDTO, request.getRemoteAddr());
 
             // cookie
             ResponseCookie refreshTokenCookie = ResponseCookie.from("refreshToken", tokens.refreshToken())
@@ -48,6 +56,8 @@ public class AuthController {
             response.addHeader(HttpHeaders.SET_COOKIE, refreshTokenCookie.toString());
 
             return ResponseEntity.ok(new LoginResponseDTO(tokens.accessToken()));
+        } catch (PasswordHashingUnavailableException | TooManyLoginAttemptsException e) {
+            throw e; // 503 / 429, handled by GlobalExceptionHandler
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
@@ -58,6 +68,8 @@ public class AuthController {
         try {
             RegisterResponseDTO response = authenticationService.register(registerRequest);
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (PasswordHashingUnavailableException e) {
+            throw e; // 503, handled by GlobalExceptionHandler
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
@@ -129,7 +141,10 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<String> logout(@RequestBody @Valid RefreshTokenRequestDTO request) {
+    public ResponseEntity<String> logout(
+            @RequestBody @Valid RefreshTokenRequestDTO request,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization
+    ) {
         // Invalidate the refresh token cookie
         ResponseCookie deleteCookie = ResponseCookie.from("refreshToken", "")
                 .httpOnly(true)
@@ -139,10 +154,37 @@ public class AuthController {
                 .maxAge(0) // Expire immediately
                 .build();
 
-        authenticationService.logout(request);
+        String accessToken = authorization != null ? authorization.replace("Bearer ", "") : null;
+        authenticationService.logout(request, accessToken);
 
         return ResponseEntity.ok()
                 .header(HttpHeaders.SET_COOKIE, deleteCookie.toString())
                 .body("Logged out successfully");
     }
+
+    @PostMapping("/logout-all")
+    public ResponseEntity<String> logoutAll(@AuthenticationPrincipal Object principal) {
+        UUID userId = switch (principal) {
+            case AuthenticatedUser authenticatedUser -> authenticatedUser.id();
+            case null, default -> null;
+        };
+
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        authenticationService.logoutEverywhere(userId);
+
+        ResponseCookie deleteCookie = ResponseCookie.from("refreshToken", "")
+                .httpOnly(true)
+                .secure(cookieSecure)
+                .sameSite("Strict")
+                .path("/api/auth/refresh-token")
+                .maxAge(0)
+                .build();
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.SET_COOKIE, deleteCookie.toString())
+                .body("Logged out from all sessions");
+    }
 }
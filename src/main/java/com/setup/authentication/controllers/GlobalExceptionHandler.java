@@ -3,6 +3,7 @@ package com.setup.authentication.controllers;
 import com.auth0.jwt.exceptions.TokenExpiredException;
 import com.setup.authentication.domain.dto.ErrorDTO;
 import com.setup.authentication.exceptions.*;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -23,18 +24,6 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorDTO);
     }
 
-    @ExceptionHandler(ErrorInSendEmailConfirmation.class)
-    public ResponseEntity<ErrorDTO> handleErrorInSendEmailConfirmation(ErrorInSendEmailConfirmation ex) {
-        ErrorDTO errorDTO = new ErrorDTO(ex.getMessage());
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorDTO);
-    }
-
-    @ExceptionHandler(ErrorInSendPasswordReset.class)
-    public ResponseEntity<ErrorDTO> handleErrorInSendPasswordReset(ErrorInSendPasswordReset ex) {
-        ErrorDTO errorDTO = new ErrorDTO(ex.getMessage());
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorDTO);
-    }
-
     @ExceptionHandler(RefreshTokenExpired.class)
     public ResponseEntity<ErrorDTO> handleRefreshTokenExpired(RefreshTokenExpired ex) {
         ErrorDTO errorDTO = new ErrorDTO(ex.getMessage());
@@ -53,6 +42,22 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorDTO);
     }
 
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<ErrorDTO> handlePasswordHashingUnavailableException(PasswordHashingUnavailableException ex) {
+        ErrorDTO errorDTO = new ErrorDTO(ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorDTO);
+    }
+
+    @ExceptionHandler(TooManyLoginAttemptsException.class)
+    public ResponseEntity<ErrorDTO> handleTooManyLoginAttemptsException(TooManyLoginAttemptsException ex) {
+        ErrorDTO errorDTO = new ErrorDTO(ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfter().toSeconds()))
+                .body(errorDTO);
+    }
+
     @ExceptionHandler(TokenExpiredException.class)
     public ResponseEntity<ErrorDTO> handleTokenExpiredException(TokenExpiredException ex) {
         ErrorDTO errorDTO = new ErrorDTO("Token has expired");
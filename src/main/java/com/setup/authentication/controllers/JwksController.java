@@ -0,0 +1,34 @@
+package com.setup.authentication.controllers;
+
+import com.setup.authentication.security.AccessTokenSigningKeys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Public keys of the access token signer, so other services verify tokens without calling us.
+ */
+@RestController
+public class JwksController {
+
+    private final AccessTokenSigningKeys signingKeys;
+
+    @Value("${jwt.access.signing.jwks-max-age}")
+    private Duration jwksMaxAge;
+
+    public JwksController(AccessTokenSigningKeys signingKeys) {
+        this.signingKeys = signingKeys;
+    }
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(jwksMaxAge).cachePublic())
+                .body(signingKeys.jwks());
+    }
+}
@@ -1,10 +1,22 @@
 package com.setup.authentication.domain.dto;
 
+import java.time.Instant;
+import java.util.UUID;
+
 public record TokenRequestDTO(
         String sub,
         String email,
         String type,
-        String expiration
+        String expiration,
+        UUID userId,
+        UUID tokenId,
+        Instant issuedAt,
+        Instant expiresAt,
+        int tokenVersion
 ) {
 
+    public TokenRequestDTO(String sub, String email, String type, String expiration) {
+        this(sub, email, type, expiration, null, null, null, null, 0);
+    }
+
 }
@@ -0,0 +1,11 @@
+package com.setup.authentication.domain.dto;
+
+import java.util.List;
+
+public record UserImportReportDTO(
+        int total,
+        int imported,
+        int rejected,
+        List<UserImportRowResultDTO> rows
+) {
+}
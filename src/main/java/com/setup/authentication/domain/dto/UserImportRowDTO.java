@@ -0,0 +1,15 @@
+package com.setup.authentication.domain.dto;
+
+import com.setup.authentication.domain.entities.Role;
+
+/**
+ * One user of a bulk import, with either a plain password or an existing BCrypt hash.
+ */
+public record UserImportRowDTO(
+        String email,
+        String password,
+        String passwordHash,
+        Role role,
+        Boolean verified
+) {
+}
@@ -0,0 +1,12 @@
+package com.setup.authentication.domain.dto;
+
+public record UserImportRowResultDTO(
+        long line,
+        String email,
+        Status status,
+        String message
+) {
+    public enum Status {
+        IMPORTED, EMAIL_EXISTS, INVALID
+    }
+}
@@ -0,0 +1,7 @@
+package com.setup.authentication.domain.entities;
+
+public enum MailStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
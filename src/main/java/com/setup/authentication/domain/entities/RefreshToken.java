@@ -1,5 +1,6 @@
 package com.setup.authentication.domain.entities;
 
+import com.setup.authentication.domain.id.TimeOrderedUuid;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -9,18 +10,24 @@ import java.time.Instant;
 import java.util.UUID;
 
 @Entity
-@Table(name = "refresh_tokens")
+// no unique constraint on token_hash: a partitioned table only allows ones that include
+// expiry_date (db/migration/003-refresh-token-hash-index.sql drops the old one)
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_token_hash", columnList = "token_hash"),
+        @Index(name = "idx_refresh_tokens_expiry_date", columnList = "expiry_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class RefreshToken {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @TimeOrderedUuid
     private UUID id;
 
-    @Column(nullable = false, unique = true)
-    private String token;
+    // SHA-256 of the refresh JWT, the raw token is never stored
+    @Column(name = "token_hash", nullable = false, length = 32)
+    private byte[] tokenHash;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
@@ -35,6 +42,9 @@ public class RefreshToken {
     @Column(nullable = false)
     private boolean revoked = false;
 
+    // set when rotation revoked the token, see RefreshTokenService.rotate
+    private Instant rotatedAt;
+
     @PrePersist
     protected void onCreate() {
         createdAt = Instant.now();
@@ -1,6 +1,21 @@
 package com.setup.authentication.domain.entities;
 
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
 public enum Role {
-    USER,
-    ADMIN
+    USER(List.of(new SimpleGrantedAuthority("ROLE_USER"))),
+    ADMIN(List.of(new SimpleGrantedAuthority("ROLE_ADMIN"), new SimpleGrantedAuthority("ROLE_USER")));
+
+    private final List<GrantedAuthority> authorities;
+
+    Role(List<GrantedAuthority> authorities) {
+        this.authorities = authorities;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
 }
@@ -0,0 +1,50 @@
+package com.setup.authentication.domain.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UUIDv7 (RFC 9562): 48-bit Unix epoch milliseconds, then a 12-bit counter, then 62 random bits.
+ * <p>
+ * The timestamp and counter together are strictly increasing within this JVM (RFC 9562
+ * method 3), so ids generated one after another also sort one after another even within
+ * the same millisecond; when the counter overflows the timestamp is moved a millisecond ahead.
+ * Ids from different nodes interleave by time, which keeps inserts close to the index edge.
+ */
+public class TimeOrderedUuidGenerator implements BeforeExecutionGenerator {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // last (milliseconds << 12 | counter) handed out
+    private static final AtomicLong LAST = new AtomicLong();
+
+    public static UUID next() {
+        long now = System.currentTimeMillis() << 12;
+        long timeAndCounter = LAST.updateAndGet(last -> Math.max(now, last + 1));
+
+        long mostSignificant = (timeAndCounter >>> 12) << 16  // unix_ts_ms
+                | 0x7000L                                       // version 7
+                | (timeAndCounter & 0xFFFL);                    // rand_a, used as counter
+        long leastSignificant = RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL
+                | 0x8000000000000000L;                          // variant 10, rand_b
+
+        return new UUID(mostSignificant, leastSignificant);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
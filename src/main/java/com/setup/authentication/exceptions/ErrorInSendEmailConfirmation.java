@@ -1,11 +0,0 @@
-package com.setup.authentication.exceptions;
-
-public class ErrorInSendEmailConfirmation extends RuntimeException {
-    public ErrorInSendEmailConfirmation(String message) {
-        super(message);
-    }
-
-    public ErrorInSendEmailConfirmation() {
-        super("Error sending email confirmation");
-    }
-}
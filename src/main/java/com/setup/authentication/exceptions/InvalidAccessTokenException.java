@@ -0,0 +1,11 @@
+package com.setup.authentication.exceptions;
+
+public class InvalidAccessTokenException extends RuntimeException {
+    public InvalidAccessTokenException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public InvalidAccessTokenException() {
+        super("Invalid or expired token");
+    }
+}
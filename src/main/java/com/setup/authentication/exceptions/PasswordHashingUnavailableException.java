@@ -0,0 +1,11 @@
+package com.setup.authentication.exceptions;
+
+public class PasswordHashingUnavailableException extends RuntimeException {
+    public PasswordHashingUnavailableException(String message) {
+        super(message);
+    }
+
+    public PasswordHashingUnavailableException() {
+        super("Server is busy, please try again later");
+    }
+}
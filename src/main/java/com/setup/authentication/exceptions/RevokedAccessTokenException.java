@@ -0,0 +1,11 @@
+package com.setup.authentication.exceptions;
+
+public class RevokedAccessTokenException extends RuntimeException {
+    public RevokedAccessTokenException(String message) {
+        super(message);
+    }
+
+    public RevokedAccessTokenException() {
+        super("Access token has been revoked");
+    }
+}
@@ -0,0 +1,26 @@
+package com.setup.authentication.exceptions;
+
+import java.time.Duration;
+
+public class TooManyLoginAttemptsException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public TooManyLoginAttemptsException(String message) {
+        super(message);
+        this.retryAfter = Duration.ofMinutes(1);
+    }
+
+    public TooManyLoginAttemptsException(Duration retryAfter) {
+        super("Too many login attempts, please try again later");
+        this.retryAfter = retryAfter;
+    }
+
+    public TooManyLoginAttemptsException() {
+        this(Duration.ofMinutes(1));
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,48 @@
+package com.setup.authentication.repositories;
+
+import com.setup.authentication.domain.entities.MailOutbox;
+import com.setup.authentication.domain.entities.MailStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, UUID> {
+
+    // FOR UPDATE SKIP LOCKED (-2) so several dispatchers never claim the same rows, leased rows are in flight
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            SELECT m FROM MailOutbox m
+            WHERE m.status = :status AND m.nextAttemptAt <= :now AND (m.leasedUntil IS NULL OR m.leasedUntil < :now)
+            ORDER BY m.nextAttemptAt
+            """)
+    List<MailOutbox> findDueForDispatch(MailStatus status, Instant now, Pageable pageable);
+
+    /**
+     * Deletes up to batchSize sent or abandoned mails queued before the cutoff, oldest first.
+     * Pending mails are never deleted.
+     */
+    @Transactional
+    @Query(value = """
+            WITH deleted AS (
+                DELETE FROM mail_outbox WHERE id IN (
+                    SELECT id FROM mail_outbox
+                    WHERE status IN ('SENT', 'FAILED') AND created_at < :cutoff
+                    ORDER BY created_at
+                    LIMIT :batchSize)
+                RETURNING id)
+            SELECT count(*) FROM deleted
+            """, nativeQuery = true)
+    long deleteFinishedBatch(Instant cutoff, int batchSize);
+}
@@ -1,11 +1,13 @@
 package com.setup.authentication.repositories;
 
 import com.setup.authentication.domain.entities.RefreshToken;
+import com.setup.authentication.domain.entities.Role;
 import com.setup.authentication.domain.entities.User;
+import com.setup.authentication.security.TokenSubject;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.Optional;
@@ -14,17 +16,104 @@ import java.util.UUID;
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
 
-    Optional<RefreshToken> findByToken(String token);
+    // Not read-only, so always on the primary: a token is looked up right after it was issued
+    // (logout, refresh), by hash, which ReadYourWritesGuard cannot key on, and replica lag would
+    // make it look missing. Always bounded by expiry, so a partitioned table only scans the
+    // months that can match.
+    @Transactional
+    Optional<RefreshToken> findByTokenHashAndExpiryDateAfter(byte[] tokenHash, Instant now);
+
+    /**
+     * Revokes an active refresh token and returns its owner in a single statement.
+     * Concurrent calls with the same token are serialized by the row lock, so only one
+     * of them gets a row back. Tokens issued before the owner's token version was bumped
+     * never match.
+     */
+    @Transactional
+    @Query(value = """
+            UPDATE refresh_tokens rt SET revoked = true, rotated_at = :now
+            FROM users u
+            WHERE rt.user_id = u.id
+              AND rt.token_hash = :tokenHash
+              AND rt.revoked = false
+              AND rt.expiry_date > :now
+              AND u.token_version = :tokenVersion
+            RETURNING u.id AS id, u.email AS email, u.role AS role, u.token_version AS tokenVersion
+            """, nativeQuery = true)
+    Optional<TokenOwner> revokeActiveToken(byte[] tokenHash, Instant now, int tokenVersion);
 
     void deleteByUser(User user);
 
-    void deleteByToken(String token);
+    void deleteByTokenHash(byte[] tokenHash);
+
+    /**
+     * Deletes up to batchSize expired tokens, oldest first, starting at the watermark so the
+     * index scan skips rows already deleted by previous batches.
+     */
+    @Transactional
+    @Query(value = """
+            WITH deleted AS (
+                DELETE FROM refresh_tokens WHERE id IN (
+                    SELECT id FROM refresh_tokens
+                    WHERE expiry_date >= :watermark AND expiry_date < :now
+                    ORDER BY expiry_date
+                    LIMIT :batchSize)
+                RETURNING expiry_date)
+            SELECT count(*) AS deleted, max(expiry_date) AS watermark FROM deleted
+            """, nativeQuery = true)
+    PurgeBatch deleteExpiredBatch(Instant watermark, Instant now, int batchSize);
+
+    @Transactional
+    @Query(value = """
+            WITH deleted AS (
+                DELETE FROM refresh_tokens WHERE id IN (
+                    SELECT id FROM refresh_tokens
+                    WHERE revoked = true AND expiry_date >= :watermark AND expiry_date < :now
+                    ORDER BY expiry_date
+                    LIMIT :batchSize)
+                RETURNING expiry_date)
+            SELECT count(*) AS deleted, max(expiry_date) AS watermark FROM deleted
+            """, nativeQuery = true)
+    PurgeBatch deleteRevokedAndExpiredBatch(Instant watermark, Instant now, int batchSize);
+
+    long countByExpiryDateBefore(Instant now);
+
+    long countByRevokedTrueAndExpiryDateBefore(Instant now);
+
+    // read straight from the RETURNING row, token minting takes it as is
+    interface TokenOwner extends TokenSubject {
+        UUID getId();
+
+        String getEmail();
+
+        String getRole();
+
+        int getTokenVersion();
+
+        @Override
+        default UUID id() {
+            return getId();
+        }
+
+        @Override
+        default String email() {
+            return getEmail();
+        }
+
+        @Override
+        default Role role() {
+            return Role.valueOf(getRole());
+        }
+
+        @Override
+        default int tokenVersion() {
+            return getTokenVersion();
+        }
+    }
 
-    @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.expiryDate < :now")
-    void deleteExpiredTokens(Instant now);
+    interface PurgeBatch {
+        long getDeleted();
 
-    @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.revoked = true AND rt.expiryDate < :now")
-    void deleteRevokedAndExpiredTokens(Instant now);
+        Instant getWatermark();
+    }
 }
@@ -0,0 +1,23 @@
+package com.setup.authentication.repositories;
+
+import com.setup.authentication.domain.entities.RevokedAccessToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RevokedAccessTokenRepository extends JpaRepository<RevokedAccessToken, UUID> {
+
+    List<RevokedAccessToken> findByRevokedAtAfterAndExpiresAtAfterOrderByRevokedAt(Instant revokedAfter, Instant now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedAccessToken r WHERE r.expiresAt < :now")
+    int deleteExpired(Instant now);
+}
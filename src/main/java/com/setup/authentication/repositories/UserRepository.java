@@ -2,14 +2,65 @@ package com.setup.authentication.repositories;
 
 
 import com.setup.authentication.domain.entities.User;
+import com.setup.authentication.security.AuthenticatedUser;
+import com.setup.authentication.security.UserCredentials;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
+
+    String USER_PRINCIPALS_BY_EMAIL_CACHE = "userPrincipalsByEmail";
+
+    @Transactional(readOnly = true)
     UserDetails findByEmail(String email);
 
+    // password verification, a DTO projection instead of a managed entity; never cached, so a
+    // changed password takes effect on every node at once
+    @Transactional(readOnly = true)
+    @Query("""
+            SELECT new com.setup.authentication.security.UserCredentials(u.id, u.email, u.password, u.role, u.isVerified, u.tokenVersion)
+            FROM users u WHERE u.email = :email
+            """)
+    UserCredentials findCredentialsByEmail(String email);
+
+    // request filtering: an immutable principal without the password hash, evicted by UserService
+    // whenever a user row changes (on this node only, unless the cache is shared)
+    @Cacheable(cacheNames = USER_PRINCIPALS_BY_EMAIL_CACHE, unless = "#result == null")
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.setup.authentication.security.AuthenticatedUser(u.id, u.email, u.role) FROM users u WHERE u.email = :email")
+    AuthenticatedUser findPrincipalByEmail(String email);
+
+    @Transactional(readOnly = true)
+    @Query("SELECT u.tokenVersion FROM users u WHERE u.id = :id")
+    Integer findTokenVersionById(UUID id);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE users u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.id = :id")
+    int incrementTokenVersion(UUID id);
+
+    /**
+     * Inserts the user unless the email is already taken, in a single statement. Returns 0 when
+     * it is, so concurrent registrations of one email never reach the unique constraint: the
+     * losers wait on the winner's row and then skip the insert.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO users (id, email, password, role, is_verified, token_version, created_at, updated_at)
+            VALUES (:id, :email, :password, :role, :verified, 0, :createdAt, :updatedAt)
+            ON CONFLICT (email) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfEmailAbsent(UUID id, String email, String password, String role, boolean verified,
+                            LocalDateTime createdAt, LocalDateTime updatedAt);
+
 }
@@ -0,0 +1,168 @@
+package com.setup.authentication.security;
+
+import com.setup.authentication.domain.entities.RevokedAccessToken;
+import com.setup.authentication.repositories.RevokedAccessTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory set of revoked access tokens (by jti), checked on every request without a
+ * database round trip. A bloom filter answers the common "not revoked" case; only its
+ * positives are confirmed against the exact set.
+ * <p>
+ * Revocations are written to the revoked_access_tokens log and replayed incrementally,
+ * so every node converges. Entries are evicted once the original token expires.
+ */
+@Component
+public class AccessTokenDenylist {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessTokenDenylist.class);
+
+    private final RevokedAccessTokenRepository revokedAccessTokenRepository;
+    private final ConcurrentHashMap<UUID, Instant> revoked = new ConcurrentHashMap<>();
+    private final int expectedInsertions;
+    private final double falsePositiveRate;
+    private final Duration syncOverlap;
+
+    private volatile BloomFilter bloomFilter;
+    private volatile Instant syncWatermark = Instant.EPOCH;
+
+    public AccessTokenDenylist(
+            RevokedAccessTokenRepository revokedAccessTokenRepository,
+            @Value("${jwt.revocation.expected-insertions}") int expectedInsertions,
+            @Value("${jwt.revocation.false-positive-rate}") double falsePositiveRate,
+            @Value("${jwt.revocation.sync-overlap}") Duration syncOverlap
+    ) {
+        this.revokedAccessTokenRepository = revokedAccessTokenRepository;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.syncOverlap = syncOverlap;
+        this.bloomFilter = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    public boolean isRevoked(UUID jti) {
+        if (jti == null) return false;
+        return bloomFilter.mightContain(jti) && revoked.containsKey(jti);
+    }
+
+    /**
+     * Inside a transaction the token is only denied on this node once the log entry commits,
+     * so a rollback never leaves a revocation that the other nodes will not replay.
+     */
+    public void revoke(UUID jti, Instant expiresAt) {
+        if (jti == null || expiresAt == null || !expiresAt.isAfter(Instant.now())) return;
+
+        revokedAccessTokenRepository.save(new RevokedAccessToken(jti, expiresAt, Instant.now()));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(jti, expiresAt);
+                }
+            });
+        } else {
+            add(jti, expiresAt);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        sync();
+    }
+
+    /**
+     * Replays revocations written since the last sync, including those from other nodes.
+     * The overlap covers rows committed late by concurrent transactions.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval}")
+    public void sync() {
+        Instant from = syncWatermark.minus(syncOverlap);
+        var entries = revokedAccessTokenRepository.findByRevokedAtAfterAndExpiresAtAfterOrderByRevokedAt(from, Instant.now());
+        for (RevokedAccessToken entry : entries) {
+            add(entry.getJti(), entry.getExpiresAt());
+            syncWatermark = entry.getRevokedAt();
+        }
+    }
+
+    /**
+     * Drops entries whose token already expired and rebuilds the bloom filter from what is
+     * left, since a bloom filter cannot remove entries.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.cleanup-interval}")
+    public void evictExpired() {
+        Instant now = Instant.now();
+        revoked.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedInsertions, revoked.size() * 2), falsePositiveRate);
+        revoked.keySet().forEach(rebuilt::put);
+        bloomFilter = rebuilt;
+        // entries revoked during the rebuild may have missed the new filter
+        revoked.keySet().forEach(rebuilt::put);
+
+        int deleted = revokedAccessTokenRepository.deleteExpired(now);
+        logger.debug("Revocation denylist holds {} tokens, deleted {} expired log entries", revoked.size(), deleted);
+    }
+
+    private void add(UUID jti, Instant expiresAt) {
+        revoked.put(jti, expiresAt);
+        bloomFilter.put(jti);
+    }
+
+    /**
+     * Lock-free bloom filter over UUIDs. The two halves of the UUID are already random,
+     * so they feed double hashing directly.
+     */
+    static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        BloomFilter(int expectedInsertions, double falsePositiveRate) {
+            long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bitCount = Math.max(64, m);
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+            this.bits = new AtomicLongArray((int) ((bitCount + 63) / 64));
+        }
+
+        void put(UUID value) {
+            long h1 = value.getMostSignificantBits();
+            long h2 = value.getLeastSignificantBits();
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                int index = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = bits.get(index);
+                    if ((current & mask) != 0) break;
+                } while (!bits.compareAndSet(index, current, current | mask));
+            }
+        }
+
+        boolean mightContain(UUID value) {
+            long h1 = value.getMostSignificantBits();
+            long h2 = value.getLeastSignificantBits();
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
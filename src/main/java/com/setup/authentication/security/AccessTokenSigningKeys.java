@@ -0,0 +1,169 @@
+package com.setup.authentication.security;
+
+import com.auth0.jwt.algorithms.Algorithm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Asymmetric key used to sign access tokens. With HS256 access tokens are signed by the
+ * rotating HMAC key ring of TokenService and nothing is published; with ES256 tokens are
+ * signed with an EC P-256 private key and carry a kid, and the public key is exposed as a
+ * JWK Set so resource servers verify tokens locally.
+ */
+@Component
+public class AccessTokenSigningKeys {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessTokenSigningKeys.class);
+
+    public enum SigningAlgorithm {
+        HS256, ES256
+    }
+
+    private final SigningAlgorithm signingAlgorithm;
+    private final Algorithm algorithm;
+    private final String keyId;
+    private final Map<String, Object> jwks;
+
+    public AccessTokenSigningKeys(
+            @Value("${jwt.access.signing.algorithm}") SigningAlgorithm signingAlgorithm,
+            @Value("${jwt.access.signing.private-key}") String privateKeyLocation,
+            @Value("${jwt.access.signing.public-key}") String publicKeyLocation,
+            ResourceLoader resourceLoader
+    ) {
+        this.signingAlgorithm = signingAlgorithm;
+
+        if (signingAlgorithm == SigningAlgorithm.HS256) {
+            this.algorithm = null;
+            this.keyId = null;
+            this.jwks = Map.of("keys", List.of());
+            return;
+        }
+
+        KeyPair keyPair;
+        if (privateKeyLocation.isBlank() || publicKeyLocation.isBlank()) {
+            // tokens signed by this key can't be verified by other nodes or after a restart
+            logger.warn("No ES256 key pair configured, generating an ephemeral one");
+            keyPair = generateKeyPair();
+        } else {
+            keyPair = loadKeyPair(resourceLoader, privateKeyLocation, publicKeyLocation);
+        }
+
+        ECPublicKey publicKey = (ECPublicKey) keyPair.getPublic();
+        this.algorithm = Algorithm.ECDSA256(publicKey, (ECPrivateKey) keyPair.getPrivate());
+        this.keyId = thumbprint(publicKey);
+        this.jwks = Map.of("keys", List.of(toJwk(publicKey, keyId)));
+        logger.info("Signing access tokens with ES256, kid {}", keyId);
+    }
+
+    public SigningAlgorithm signingAlgorithm() {
+        return signingAlgorithm;
+    }
+
+    // both null with HS256
+    public Algorithm algorithm() {
+        return algorithm;
+    }
+
+    public String keyId() {
+        return keyId;
+    }
+
+    public Map<String, Object> jwks() {
+        return jwks;
+    }
+
+    static Map<String, Object> toJwk(ECPublicKey publicKey, String keyId) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "EC");
+        jwk.put("crv", "P-256");
+        jwk.put("x", coordinate(publicKey.getW().getAffineX()));
+        jwk.put("y", coordinate(publicKey.getW().getAffineY()));
+        jwk.put("use", "sig");
+        jwk.put("alg", "ES256");
+        jwk.put("kid", keyId);
+        return jwk;
+    }
+
+    /**
+     * RFC 7638 thumbprint, stable for a given key so every node publishing it agrees on the kid.
+     */
+    static String thumbprint(ECPublicKey publicKey) {
+        String canonical = "{\"crv\":\"P-256\",\"kty\":\"EC\",\"x\":\"" + coordinate(publicKey.getW().getAffineX())
+                + "\",\"y\":\"" + coordinate(publicKey.getW().getAffineY()) + "\"}";
+        return base64Url(TokenDigest.sha256(canonical));
+    }
+
+    // fixed 32-byte, unsigned big-endian encoding of a P-256 coordinate
+    private static String coordinate(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] fixed = new byte[32];
+        int length = Math.min(bytes.length, 32);
+        System.arraycopy(bytes, bytes.length - length, fixed, 32 - length, length);
+        return base64Url(fixed);
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static KeyPair generateKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("EC P-256 is not available", e);
+        }
+    }
+
+    // PKCS#8 private key and X.509 public key, both PEM encoded
+    private static KeyPair loadKeyPair(ResourceLoader resourceLoader, String privateKeyLocation, String publicKeyLocation) {
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("EC");
+            var privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(readPem(resourceLoader, privateKeyLocation)));
+            var publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(readPem(resourceLoader, publicKeyLocation)));
+
+            if (((ECPublicKey) publicKey).getParams().getCurve().getField().getFieldSize() != 256) {
+                throw new IllegalStateException("ES256 requires a P-256 key");
+            }
+            return new KeyPair(publicKey, privateKey);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid ES256 key pair", e);
+        }
+    }
+
+    private static byte[] readPem(ResourceLoader resourceLoader, String location) {
+        try (InputStream in = resourceLoader.getResource(location).getInputStream()) {
+            String pem = new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+            String body = Arrays.stream(pem.split("\\R"))
+                    .filter(line -> !line.startsWith("-----"))
+                    .reduce("", String::concat);
+            return Base64.getMimeDecoder().decode(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read key " + location, e);
+        }
+    }
+}
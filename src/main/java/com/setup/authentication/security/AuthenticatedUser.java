@@ -0,0 +1,29 @@
+package com.setup.authentication.security;
+
+import com.setup.authentication.domain.entities.Role;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.io.Serializable;
+import java.security.Principal;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Lightweight principal, rebuilt from verified access token claims or loaded (and cached)
+ * by UserRepository.findPrincipalByEmail. Serializable for a shared (Redis) cache.
+ */
+public record AuthenticatedUser(
+        UUID id,
+        String email,
+        Role role
+) implements Principal, Serializable {
+
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return role.getAuthorities();
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
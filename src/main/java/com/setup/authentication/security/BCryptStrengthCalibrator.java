@@ -0,0 +1,49 @@
+package com.setup.authentication.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Picks the highest BCrypt strength whose hash time stays under the target latency
+ * on the current hardware. Each extra strength point doubles the cost.
+ */
+public final class BCryptStrengthCalibrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(BCryptStrengthCalibrator.class);
+
+    // never go below the BCryptPasswordEncoder default
+    private static final int MIN_STRENGTH = 10;
+    private static final int MAX_STRENGTH = 16;
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    public static int calibrate(Duration targetLatency) {
+        int strength = MIN_STRENGTH;
+        for (int candidate = MIN_STRENGTH; candidate <= MAX_STRENGTH; candidate++) {
+            long elapsed = measure(candidate);
+            logger.debug("BCrypt strength {} took {} ms", candidate, elapsed / 1_000_000);
+            if (elapsed > targetLatency.toNanos()) {
+                break;
+            }
+            strength = candidate;
+        }
+        logger.info("Calibrated BCrypt strength {} for a target of {} ms per hash", strength, targetLatency.toMillis());
+        return strength;
+    }
+
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        // first run warms up the JIT, keep the faster of two runs
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration-password");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
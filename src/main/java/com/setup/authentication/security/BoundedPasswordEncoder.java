@@ -0,0 +1,129 @@
+package com.setup.authentication.security;
+
+import com.setup.authentication.exceptions.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.context.ContextExecutorService;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the delegate encoder on a fixed-size pool with a bounded queue, so a burst of
+ * logins cannot occupy every request thread with BCrypt. Once the queue is full new
+ * hashing requests fail fast with PasswordHashingUnavailableException (503).
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    // same pool, carrying the caller's trace context (and other ThreadLocals) into the task
+    private final ExecutorService contextExecutor;
+    private final ObservationRegistry observationRegistry;
+    private final Duration timeout;
+    private final Counter rejected;
+    private final Timer queueTimer;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, Duration timeout,
+                                  MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
+        this.delegate = delegate;
+        this.timeout = timeout;
+        this.observationRegistry = observationRegistry;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        this.contextExecutor = ContextExecutorService.wrap(executor, ContextSnapshotFactory.builder().build());
+
+        // executor.pool.*, executor.queued, executor.completed... tagged name=passwordHashing
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "passwordHashing");
+        this.rejected = Counter.builder("auth.password.hashing.rejected")
+                .description("Password hashing requests rejected because the pool was saturated")
+                .register(meterRegistry);
+
+        // hashing itself is observed as auth.password.hash, the wait for a pool thread is timed here
+        this.queueTimer = Timer.builder("auth.password.hash.queued")
+                .description("Time waiting for a password hashing thread")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute("encode", () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute("matches", () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * The wrapped encoder, for bulk work that brings its own pool.
+     */
+    public PasswordEncoder getDelegate() {
+        return delegate;
+    }
+
+    private <T> T execute(String operation, Supplier<T> task) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = contextExecutor.submit(() -> {
+                queueTimer.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                // a child of the caller's span thanks to the context-propagating executor
+                return Observation.createNotStarted("auth.password.hash", observationRegistry)
+                        .lowCardinalityKeyValue("operation", operation)
+                        .observe(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingUnavailableException();
+        }
+
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new PasswordHashingUnavailableException();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Error hashing password", e.getCause());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
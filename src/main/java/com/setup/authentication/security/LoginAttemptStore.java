@@ -0,0 +1,18 @@
+package com.setup.authentication.security;
+
+import java.time.Duration;
+
+/**
+ * Counts login attempts per key over a sliding window. The default implementation is
+ * in-memory and per node; declare a @Primary bean (e.g. backed by Redis INCR/EXPIRE) to
+ * share the counts across nodes.
+ */
+public interface LoginAttemptStore {
+
+    /**
+     * Records one attempt for the key and returns the number of attempts in the last window,
+     * including this one. A bounded implementation may forget keys with few attempts, but must
+     * not let other keys raise a key's count.
+     */
+    long recordAttempt(String key, Duration window);
+}
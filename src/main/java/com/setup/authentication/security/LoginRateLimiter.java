@@ -0,0 +1,79 @@
+package com.setup.authentication.security;
+
+import com.setup.authentication.exceptions.TooManyLoginAttemptsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Throttles login attempts per client IP and per email before any password is hashed,
+ * so credential-stuffing waves are rejected without spending BCrypt time on them.
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final LoginAttemptStore store;
+    private final boolean enabled;
+    private final long perIpLimit;
+    private final Duration perIpWindow;
+    private final long perEmailLimit;
+    private final Duration perEmailWindow;
+
+    private final Counter admitted;
+    private final Counter rejectedByIp;
+    private final Counter rejectedByEmail;
+
+    public LoginRateLimiter(
+            LoginAttemptStore store,
+            @Value("${security.login.rate-limit.enabled}") boolean enabled,
+            @Value("${security.login.rate-limit.per-ip}") long perIpLimit,
+            @Value("${security.login.rate-limit.per-ip-window}") Duration perIpWindow,
+            @Value("${security.login.rate-limit.per-email}") long perEmailLimit,
+            @Value("${security.login.rate-limit.per-email-window}") Duration perEmailWindow,
+            MeterRegistry meterRegistry
+    ) {
+        this.store = store;
+        this.enabled = enabled;
+        this.perIpLimit = perIpLimit;
+        this.perIpWindow = perIpWindow;
+        this.perEmailLimit = perEmailLimit;
+        this.perEmailWindow = perEmailWindow;
+
+        this.admitted = Counter.builder("auth.login.attempts")
+                .description("Login attempts by rate limiter decision")
+                .tag("outcome", "admitted")
+                .register(meterRegistry);
+        this.rejectedByIp = Counter.builder("auth.login.attempts")
+                .tag("outcome", "rejected")
+                .tag("limit", "ip")
+                .register(meterRegistry);
+        this.rejectedByEmail = Counter.builder("auth.login.attempts")
+                .tag("outcome", "rejected")
+                .tag("limit", "email")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records the attempt, throwing TooManyLoginAttemptsException when either limit is exceeded.
+     * Rejected attempts are counted too, so a client that keeps hammering stays throttled.
+     */
+    public void checkAttempt(String clientIp, String email) {
+        if (!enabled) return;
+
+        if (clientIp != null && store.recordAttempt("ip:" + clientIp, perIpWindow) > perIpLimit) {
+            rejectedByIp.increment();
+            throw new TooManyLoginAttemptsException(perIpWindow);
+        }
+
+        if (email != null && store.recordAttempt("email:" + email.toLowerCase(Locale.ROOT), perEmailWindow) > perEmailLimit) {
+            rejectedByEmail.increment();
+            throw new TooManyLoginAttemptsException(perEmailWindow);
+        }
+
+        admitted.increment();
+    }
+}
@@ -1,5 +1,8 @@
 package com.setup.authentication.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -13,6 +16,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfigurations {
@@ -29,15 +34,33 @@ public class SecurityConfigurations {
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session.sessionCreationPolicy((SessionCreationPolicy.STATELESS)))
                 .authorizeHttpRequests(authorize -> authorize
-
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
                         .anyRequest().permitAll()
                 ).addFilterBefore(securityFilter, UsernamePasswordAuthenticationFilter.class)
                 .build();
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.password.bcrypt.strength}") int strength,
+            @Value("${security.password.bcrypt.calibrate}") boolean calibrate,
+            @Value("${security.password.bcrypt.target-latency}") Duration targetLatency,
+            @Value("${security.password.hashing.threads}") int threads,
+            @Value("${security.password.hashing.queue-capacity}") int queueCapacity,
+            @Value("${security.password.hashing.timeout}") Duration timeout,
+            MeterRegistry meterRegistry,
+            ObservationRegistry observationRegistry
+    ) {
+        int bcryptStrength = calibrate ? BCryptStrengthCalibrator.calibrate(targetLatency) : strength;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength), poolSize, queueCapacity, timeout, meterRegistry, observationRegistry);
+    }
+
+    // per node; replace with a @Primary LoginAttemptStore backed by a shared store for multi-node limits
+    @Bean
+    public LoginAttemptStore loginAttemptStore(@Value("${security.login.rate-limit.max-keys}") long maxKeys) {
+        return new SlidingWindowLoginAttemptStore(maxKeys);
     }
 
     @Bean
@@ -1,40 +1,86 @@
 package com.setup.authentication.security;
 
+import com.setup.authentication.config.ReadYourWritesGuard;
+import com.setup.authentication.domain.dto.TokenRequestDTO;
+import com.setup.authentication.domain.entities.Role;
 import com.setup.authentication.repositories.UserRepository;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 
 @Component
 public class SecurityFilter extends OncePerRequestFilter {
 
     private final TokenService tokenService;
     private final UserRepository userRepository;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final ObservationRegistry observationRegistry;
 
-    public SecurityFilter(TokenService tokenService, UserRepository userRepository) {
+    @Value("${security.jwt.claims-authoritative.enabled}")
+    private boolean claimsAuthoritative;
+
+    @Value("${security.jwt.claims-authoritative.window}")
+    private Duration claimsAuthoritativeWindow;
+
+    public SecurityFilter(TokenService tokenService, UserRepository userRepository, ReadYourWritesGuard readYourWritesGuard, ObservationRegistry observationRegistry) {
         this.tokenService = tokenService;
         this.userRepository = userRepository;
+        this.readYourWritesGuard = readYourWritesGuard;
+        this.observationRegistry = observationRegistry;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         var token = this.recoverToken(request);
         if (token != null) {
-            var tokenData = tokenService.validateToken(token);
-            UserDetails user = userRepository.findByEmail(tokenData.email());
+            // the span covers authentication only, not the rest of the chain
+            Observation.createNotStarted("auth.security.filter", observationRegistry)
+                    .lowCardinalityKeyValue("claims.authoritative", String.valueOf(claimsAuthoritative))
+                    .observe(() -> authenticate(token));
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private void authenticate(String token) {
+        var tokenData = tokenService.validateToken(token);
 
-            var authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        UsernamePasswordAuthenticationToken authentication = null;
+        if (canTrustClaims(tokenData)) {
+            // build the principal straight from the verified claims, no database round trip
+            var user = new AuthenticatedUser(tokenData.userId(), tokenData.email(), Role.valueOf(tokenData.type()));
+            authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        } else {
+            AuthenticatedUser user = readYourWritesGuard.read(tokenData.email(), () -> userRepository.findPrincipalByEmail(tokenData.email()));
+            if (user != null) {
+                authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+            }
+        }
+
+        if (authentication != null) {
             SecurityContextHolder.getContext().setAuthentication(authentication);
         }
-        filterChain.doFilter(request, response);
+    }
+
+    private boolean canTrustClaims(TokenRequestDTO tokenData) {
+        if (!claimsAuthoritative || tokenData.userId() == null || tokenData.issuedAt() == null || tokenData.type() == null) {
+            return false;
+        }
+
+        // the token version was already checked by TokenService, so within the window the claims are current
+        var tokenAge = Duration.between(tokenData.issuedAt(), Instant.now());
+        return tokenAge.compareTo(claimsAuthoritativeWindow) <= 0;
     }
 
     private String recoverToken(HttpServletRequest request) {
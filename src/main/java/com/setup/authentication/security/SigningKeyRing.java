@@ -0,0 +1,173 @@
+package com.setup.authentication.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Signing keys of one token type, selected by the kid header.
+ * <p>
+ * Rotating rings derive one HMAC key per rotation period from the master secrets
+ * (HMAC-SHA256(secret, purpose + ":" + period)), so every node computes the same keys and
+ * switches at the same time without sharing state. New tokens are signed with the key of the
+ * current period of the first secret; keys of the previous periods, for as long as a token
+ * can live, and of the next period (clock skew between nodes) still verify, as do the keys
+ * of the older secrets, so neither a period rollover nor replacing a secret logs anyone out.
+ * Tokens without a kid, issued before key rotation, verify against the raw secrets.
+ */
+public final class SigningKeyRing {
+
+    private record Keys(long period, String currentKeyId, Algorithm current, Map<String, JWTVerifier> verifiers) {
+    }
+
+    private final String purpose;
+    private final List<String> secrets;
+    private final long periodSeconds;
+    private final long retainedPeriods;
+    private final Function<Algorithm, JWTVerifier> verifierFactory;
+    private final List<JWTVerifier> legacyVerifiers;
+    private final ObservationRegistry observationRegistry;
+
+    private volatile Keys keys;
+
+    private SigningKeyRing(String purpose, List<String> secrets, Duration rotationPeriod, Duration maxTokenLifetime,
+                           boolean acceptLegacy, Function<Algorithm, JWTVerifier> verifierFactory, ObservationRegistry observationRegistry) {
+        this.purpose = purpose;
+        this.observationRegistry = observationRegistry;
+        this.secrets = secrets;
+        this.periodSeconds = rotationPeriod.toSeconds();
+        this.retainedPeriods = Math.ceilDiv(maxTokenLifetime.toSeconds(), periodSeconds);
+        this.verifierFactory = verifierFactory;
+        this.legacyVerifiers = acceptLegacy
+                ? secrets.stream().map(secret -> verifierFactory.apply(Algorithm.HMAC256(secret))).toList()
+                : List.of();
+    }
+
+    /**
+     * @param secrets current secret first, followed by secrets being retired
+     */
+    public static SigningKeyRing rotating(String purpose, List<String> secrets, Duration rotationPeriod, Duration maxTokenLifetime,
+                                          boolean acceptLegacy, Function<Algorithm, JWTVerifier> verifierFactory,
+                                          ObservationRegistry observationRegistry) {
+        if (secrets.isEmpty()) {
+            throw new IllegalArgumentException("No secret configured for " + purpose + " tokens");
+        }
+        SigningKeyRing ring = new SigningKeyRing(purpose, secrets, rotationPeriod, maxTokenLifetime, acceptLegacy, verifierFactory, observationRegistry);
+        ring.rotate(Instant.now());
+        return ring;
+    }
+
+    /**
+     * A single key that never rotates, e.g. an asymmetric key whose kid is published.
+     */
+    public static SigningKeyRing fixed(String purpose, String keyId, Algorithm algorithm, Function<Algorithm, JWTVerifier> verifierFactory,
+                                       ObservationRegistry observationRegistry) {
+        SigningKeyRing ring = new SigningKeyRing(purpose, List.of(), Duration.ofSeconds(1), Duration.ZERO, false, verifierFactory, observationRegistry);
+        ring.keys = new Keys(Long.MAX_VALUE, keyId, algorithm, Map.of(keyId, verifierFactory.apply(algorithm)));
+        return ring;
+    }
+
+    // observed as auth.token.sign / auth.token.verify: a span and a timer, tagged by token type
+    public String sign(JWTCreator.Builder token) {
+        Keys current = keys;
+        return Observation.createNotStarted("auth.token.sign", observationRegistry)
+                .lowCardinalityKeyValue("type", purpose)
+                .observe(() -> token.withKeyId(current.currentKeyId()).sign(current.current()));
+    }
+
+    public DecodedJWT verify(String token) {
+        return Observation.createNotStarted("auth.token.verify", observationRegistry)
+                .lowCardinalityKeyValue("type", purpose)
+                .observe(() -> doVerify(token));
+    }
+
+    private DecodedJWT doVerify(String token) {
+        DecodedJWT decodedJWT = JWT.decode(token);
+
+        if (decodedJWT.getKeyId() == null) {
+            return verifyLegacy(decodedJWT);
+        }
+
+        JWTVerifier verifier = keys.verifiers().get(decodedJWT.getKeyId());
+        if (verifier == null) {
+            throw new JWTVerificationException("Unknown signing key " + decodedJWT.getKeyId());
+        }
+        return verifier.verify(decodedJWT);
+    }
+
+    /**
+     * Moves to the key of the period containing now. Cheap when the period has not changed,
+     * so it can be called often; the new key set is published atomically.
+     */
+    public void rotate(Instant now) {
+        if (secrets.isEmpty()) return;
+
+        long period = Math.floorDiv(now.getEpochSecond(), periodSeconds);
+        Keys current = keys;
+        if (current != null && current.period() == period) return;
+
+        Map<String, JWTVerifier> verifiers = new HashMap<>();
+        for (String secret : secrets) {
+            for (long p = period - retainedPeriods; p <= period + 1; p++) {
+                verifiers.put(keyId(secret, p), verifierFactory.apply(derive(secret, p)));
+            }
+        }
+
+        String primary = secrets.getFirst();
+        keys = new Keys(period, keyId(primary, period), derive(primary, period), Map.copyOf(verifiers));
+    }
+
+    public String currentKeyId() {
+        return keys.currentKeyId();
+    }
+
+    private DecodedJWT verifyLegacy(DecodedJWT decodedJWT) {
+        if (legacyVerifiers.isEmpty()) {
+            throw new JWTVerificationException("Token has no key id");
+        }
+
+        JWTVerificationException failure = null;
+        for (JWTVerifier verifier : legacyVerifiers) {
+            try {
+                return verifier.verify(decodedJWT);
+            } catch (JWTVerificationException e) {
+                failure = e;
+            }
+        }
+        throw failure;
+    }
+
+    private Algorithm derive(String secret, long period) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return Algorithm.HMAC256(mac.doFinal((purpose + ":" + period).getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    // the secret fingerprint tells keys of different secrets apart without revealing them
+    private String keyId(String secret, long period) {
+        String fingerprint = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(TokenDigest.sha256(secret)).substring(0, 8);
+        return purpose + "-" + period + "-" + fingerprint;
+    }
+}
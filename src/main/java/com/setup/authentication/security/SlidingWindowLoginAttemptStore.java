@@ -0,0 +1,92 @@
+package com.setup.authentication.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory LoginAttemptStore with one exact counter per key, so a flood of distinct keys
+ * (credential stuffing from many IPs or against many emails) never raises the count of
+ * another key.
+ * <p>
+ * Each counter holds the attempt counts of the current and previous windows. The sliding
+ * count is the current count plus the previous one weighted by how much of it still overlaps
+ * the window. Counters are kept in a Caffeine cache bounded to maxKeys per window length and
+ * expire two windows after their last attempt. Beyond maxKeys the cache evicts the keys with
+ * the fewest attempts, which then start counting from zero again: a flood of new keys can
+ * only under-count one-off keys, while the keys that keep hammering stay tracked.
+ */
+public class SlidingWindowLoginAttemptStore implements LoginAttemptStore {
+
+    private final long maxKeys;
+    private final LongSupplier clock;
+    // one cache per window length, there is one per limited dimension
+    private final Map<Duration, Cache<String, WindowCounter>> counters = new ConcurrentHashMap<>();
+
+    public SlidingWindowLoginAttemptStore(long maxKeys) {
+        this(maxKeys, System::currentTimeMillis);
+    }
+
+    SlidingWindowLoginAttemptStore(long maxKeys, LongSupplier clock) {
+        this.maxKeys = maxKeys;
+        this.clock = clock;
+    }
+
+    @Override
+    public long recordAttempt(String key, Duration window) {
+        long windowMillis = window.toMillis();
+        long now = clock.getAsLong();
+        long windowNumber = now / windowMillis;
+        // share of the previous window still inside the sliding window
+        double previousWeight = 1.0 - (double) (now % windowMillis) / windowMillis;
+
+        WindowCounter counter = counters.computeIfAbsent(window, this::newCache).get(key, k -> new WindowCounter());
+        return counter.increment(windowNumber, previousWeight);
+    }
+
+    /**
+     * Number of keys currently tracked for the window length, evictions included.
+     */
+    long trackedKeys(Duration window) {
+        Cache<String, WindowCounter> cache = counters.get(window);
+        if (cache == null) return 0;
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private Cache<String, WindowCounter> newCache(Duration window) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(window.multipliedBy(2))
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.getAsLong()))
+                // evict on the recording thread, the bound holds without a background task
+                .executor(Runnable::run)
+                .build();
+    }
+
+    private static final class WindowCounter {
+
+        private long windowNumber;
+        private long current;
+        private long previous;
+
+        synchronized long increment(long window, double previousWeight) {
+            if (window == windowNumber) {
+                current++;
+            } else if (window == windowNumber + 1) {
+                previous = current;
+                current = 1;
+            } else {
+                previous = 0;
+                current = 1;
+            }
+            windowNumber = window;
+            return current + (long) Math.ceil(previous * previousWeight);
+        }
+    }
+}
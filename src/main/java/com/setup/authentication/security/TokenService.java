@@ -1,48 +1,136 @@
 package com.setup.authentication.security;
 
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
+import com.auth0.jwt.exceptions.JWTDecodeException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.setup.authentication.domain.dto.TokenRequestDTO;
-import com.setup.authentication.domain.entities.User;
+import com.setup.authentication.exceptions.InvalidAccessTokenException;
+import com.setup.authentication.exceptions.RevokedAccessTokenException;
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
 
 @Service
 public class TokenService {
 
-    @Value("${jwt.secret.access}")
-    private String SECRET_KEY_ACCESS;
-
-    @Value("${jwt.secret.refresh}")
-    private String SECRET_KEY_REFRESH;
-
-    @Value("${jwt.secret.confirmation.email}")
-    private String SECRET_KEY_CONFIRMATION_EMAIL;
+    private static final String ISSUER = "setup-auth";
+
+    private final int ACCESS_TOKEN_EXPIRATION_MINUTES;
+    private final int REFRESH_TOKEN_EXPIRATION_MINUTES;
+
+    // one key ring per token type, each signing with the key of the current rotation period
+    // and selecting the verifier by kid; the JWTVerifiers are built once per key
+    private final SigningKeyRing accessKeys;
+    private final SigningKeyRing refreshKeys;
+    private final SigningKeyRing emailConfirmationKeys;
+    private final SigningKeyRing resetPasswordKeys;
+
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final AccessTokenDenylist accessTokenDenylist;
+    private final TokenVersionCache tokenVersionCache;
+
+    public TokenService(
+            VerifiedTokenCache verifiedTokenCache,
+            AccessTokenDenylist accessTokenDenylist,
+            TokenVersionCache tokenVersionCache,
+            AccessTokenSigningKeys accessTokenSigningKeys,
+            @Value("${jwt.secret.access}") String secretKeyAccess,
+            @Value("${jwt.secret.refresh}") String secretKeyRefresh,
+            @Value("${jwt.secret.confirmation.email}") String secretKeyConfirmationEmail,
+            @Value("${jwt.secret.password.key}") String secretKeyPasswordKey,
+            @Value("${jwt.access.token.expiration}") int accessTokenExpirationMinutes,
+            @Value("${jwt.refresh.token.expiration}") int refreshTokenExpirationMinutes,
+            @Value("${jwt.key-rotation.period}") Duration rotationPeriod,
+            @Value("${jwt.key-rotation.accept-legacy}") boolean acceptLegacyTokens,
+            ObservationRegistry observationRegistry
+    ) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.accessTokenDenylist = accessTokenDenylist;
+        this.tokenVersionCache = tokenVersionCache;
+        this.ACCESS_TOKEN_EXPIRATION_MINUTES = accessTokenExpirationMinutes;
+        this.REFRESH_TOKEN_EXPIRATION_MINUTES = refreshTokenExpirationMinutes;
+
+        Function<Algorithm, JWTVerifier> accessVerifier = algorithm -> JWT.require(algorithm)
+                .withIssuer(ISSUER)
+                .build();
+
+        // an ES256 key is rotated by deploying a new key pair, its kid is published in the JWK Set
+        this.accessKeys = accessTokenSigningKeys.signingAlgorithm() == AccessTokenSigningKeys.SigningAlgorithm.ES256
+                ? SigningKeyRing.fixed("access", accessTokenSigningKeys.keyId(), accessTokenSigningKeys.algorithm(), accessVerifier, observationRegistry)
+                : SigningKeyRing.rotating("access", secrets(secretKeyAccess), rotationPeriod,
+                        lifetime(calculateAccessTokenExpiration(), accessTokenExpirationMinutes), acceptLegacyTokens, accessVerifier, observationRegistry);
+        this.refreshKeys = SigningKeyRing.rotating("refresh", secrets(secretKeyRefresh), rotationPeriod,
+                lifetime(calculateRefreshTokenExpiration(), refreshTokenExpirationMinutes), acceptLegacyTokens,
+                algorithm -> JWT.require(algorithm)
+                        .withIssuer(ISSUER)
+                        .withClaim("type", "refresh")
+                        .build(), observationRegistry);
+        this.emailConfirmationKeys = SigningKeyRing.rotating("email-confirmation", secrets(secretKeyConfirmationEmail), rotationPeriod,
+                lifetime(calculateExpiration(), 120), acceptLegacyTokens,
+                algorithm -> JWT.require(algorithm)
+                        .withIssuer(ISSUER)
+                        .withClaim("type", "email-confirmation")
+                        .build(), observationRegistry);
+        this.resetPasswordKeys = SigningKeyRing.rotating("reset-password", secrets(secretKeyPasswordKey), rotationPeriod,
+                lifetime(calculateExpiration(), 120), acceptLegacyTokens,
+                algorithm -> JWT.require(algorithm)
+                        .withIssuer(ISSUER)
+                        .withClaim("type", "reset-password")
+                        .build(), observationRegistry);
+    }
 
-    @Value("${jwt.secret.password.key}")
-    private String SECRET_KEY_PASSWORD_KEY;
+    /**
+     * Switches every ring to the key of the current period. All nodes derive the same keys,
+     * so they roll over together without a restart and tokens signed earlier keep verifying.
+     */
+    @Scheduled(fixedDelayString = "${jwt.key-rotation.check-interval}")
+    public void rotateSigningKeys() {
+        Instant now = Instant.now();
+        accessKeys.rotate(now);
+        refreshKeys.rotate(now);
+        emailConfirmationKeys.rotate(now);
+        resetPasswordKeys.rotate(now);
+    }
 
-    @Value("${jwt.access.token.expiration}")
-    private int ACCESS_TOKEN_EXPIRATION_MINUTES;
+    // "current,previous,..." lets a secret be replaced while tokens signed with the old one are still valid
+    private static List<String> secrets(String secrets) {
+        return Arrays.stream(secrets.split(","))
+                .map(String::trim)
+                .filter(secret -> !secret.isEmpty())
+                .toList();
+    }
 
-    @Value("${jwt.refresh.token.expiration}")
-    private int REFRESH_TOKEN_EXPIRATION_MINUTES;
+    // how long a token issued now stays valid, as computed by the expiration methods
+    private static Duration lifetime(Instant expiration, int minutes) {
+        Duration untilExpiration = Duration.between(Instant.now(), expiration);
+        Duration configured = Duration.ofMinutes(minutes);
+        return untilExpiration.compareTo(configured) > 0 ? untilExpiration : configured;
+    }
 
-    public String generateToken(User user) {
+    public String generateToken(TokenSubject user) {
         try {
-            Algorithm algorithm = Algorithm.HMAC256(SECRET_KEY_ACCESS);
-            String token = JWT.create()
-                    .withIssuer("setup-auth")
-                    .withSubject(user.getEmail())
-                    .withClaim("role", user.getRole().toString())
-                    .withExpiresAt(calculateAccessTokenExpiration())
-                    .sign(algorithm);
+            String token = accessKeys.sign(JWT.create()
+                    .withIssuer(ISSUER)
+                    .withSubject(user.email())
+                    .withJWTId(UUID.randomUUID().toString())
+                    .withClaim("uid", user.id().toString())
+                    .withClaim("role", user.role().toString())
+                    .withClaim("ver", user.tokenVersion())
+                    .withIssuedAt(Instant.now())
+                    .withExpiresAt(calculateAccessTokenExpiration()));
 
             return token;
         } catch (JWTCreationException e) {
@@ -51,27 +139,51 @@ public class TokenService {
     }
 
     public TokenRequestDTO validateToken(String token) {
+        // skip signature verification for tokens already verified and not yet expired
+        TokenRequestDTO cached = verifiedTokenCache.get(token);
+        if (cached != null) {
+            return checkNotRevoked(cached);
+        }
+
         try {
-            Algorithm algorithm = Algorithm.HMAC256(SECRET_KEY_ACCESS);
-            var decodedJWT = JWT.require(algorithm)
-                    .withIssuer("setup-auth")
-                    .build()
-                    .verify(token);
+            var decodedJWT = accessKeys.verify(token);
+
+            var userId = decodedJWT.getClaim("uid").asString();
+            var tokenId = decodedJWT.getId();
+            var tokenVersion = decodedJWT.getClaim("ver").asInt();
 
             TokenRequestDTO tokenRequest = new TokenRequestDTO(
                     decodedJWT.getSubject(),
                     decodedJWT.getSubject(), // email é o subject
                     decodedJWT.getClaim("role").asString(),
-                    decodedJWT.getExpiresAt().toString()
+                    decodedJWT.getExpiresAt().toString(),
+                    userId != null ? UUID.fromString(userId) : null,
+                    tokenId != null ? UUID.fromString(tokenId) : null,
+                    decodedJWT.getIssuedAtAsInstant(),
+                    decodedJWT.getExpiresAtAsInstant(),
+                    tokenVersion != null ? tokenVersion : 0
             );
 
-            return tokenRequest;
+            verifiedTokenCache.put(token, tokenRequest);
+
+            return checkNotRevoked(tokenRequest);
 
         } catch (JWTVerificationException e) {
-            throw new RuntimeException("Invalid or expired token", e);
+            throw new InvalidAccessTokenException("Invalid or expired token", e);
         }
     }
 
+    private TokenRequestDTO checkNotRevoked(TokenRequestDTO tokenRequest) {
+        if (accessTokenDenylist.isRevoked(tokenRequest.tokenId())) {
+            throw new RevokedAccessTokenException();
+        }
+        // a bumped token version means every session of the user was logged out
+        if (tokenRequest.userId() != null && !tokenVersionCache.isCurrent(tokenRequest.userId(), tokenRequest.tokenVersion())) {
+            throw new RevokedAccessTokenException("Session has been revoked");
+        }
+        return tokenRequest;
+    }
+
     private Instant calculateAccessTokenExpiration() {
         return LocalDateTime.now().plusMinutes(ACCESS_TOKEN_EXPIRATION_MINUTES).toInstant(ZoneOffset.of("-03:00"));
     }
@@ -86,13 +198,11 @@ public class TokenService {
 
     public String generateEmailConfirmationToken(String email) {
         try {
-            Algorithm algorithm = Algorithm.HMAC256(SECRET_KEY_CONFIRMATION_EMAIL);
-            String token = JWT.create()
-                    .withIssuer("setup-auth")
+            String token = emailConfirmationKeys.sign(JWT.create()
+                    .withIssuer(ISSUER)
                     .withSubject(email)
                     .withClaim("type", "email-confirmation")
-                    .withExpiresAt(calculateExpiration())
-                    .sign(algorithm);
+                    .withExpiresAt(calculateExpiration()));
 
             return token;
         } catch (JWTCreationException e) {
@@ -102,12 +212,7 @@ public class TokenService {
 
     public TokenRequestDTO validateEmailConfirmationToken(String token) {
         try {
-            Algorithm algorithm = Algorithm.HMAC256(SECRET_KEY_CONFIRMATION_EMAIL);
-            var decodedJWT = JWT.require(algorithm)
-                    .withIssuer("setup-auth")
-                    .withClaim("type", "email-confirmation")
-                    .build()
-                    .verify(token);
+            var decodedJWT = emailConfirmationKeys.verify(token);
 
             TokenRequestDTO tokenRequest = new TokenRequestDTO(
                     decodedJWT.getSubject(),
@@ -125,13 +230,11 @@ public class TokenService {
 
     public String generateResetPasswordToken(String email) {
         try {
-            Algorithm algorithm = Algorithm.HMAC256(SECRET_KEY_PASSWORD_KEY);
-            String token = JWT.create()
-                    .withIssuer("setup-auth")
+            String token = resetPasswordKeys.sign(JWT.create()
+                    .withIssuer(ISSUER)
                     .withSubject(email)
                     .withClaim("type", "reset-password")
-                    .withExpiresAt(calculateExpiration())
-                    .sign(algorithm);
+                    .withExpiresAt(calculateExpiration()));
 
             return token;
         } catch (JWTCreationException e) {
@@ -141,12 +244,7 @@ public class TokenService {
 
     public TokenRequestDTO validateResetPasswordToken(String token) {
         try {
-            Algorithm algorithm = Algorithm.HMAC256(SECRET_KEY_PASSWORD_KEY);
-            var decodedJWT = JWT.require(algorithm)
-                    .withIssuer("setup-auth")
-                    .withClaim("type", "reset-password")
-                    .build()
-                    .verify(token);
+            var decodedJWT = resetPasswordKeys.verify(token);
 
             TokenRequestDTO tokenRequest = new TokenRequestDTO(
                     decodedJWT.getSubject(),
@@ -162,15 +260,15 @@ public class TokenService {
         }
     }
 
-    public String generateRefreshToken(User user) {
+    public String generateRefreshToken(TokenSubject user) {
         try {
-            Algorithm algorithm = Algorithm.HMAC256(SECRET_KEY_REFRESH);
-            String token = JWT.create()
-                    .withIssuer("setup-auth")
-                    .withSubject(user.getEmail())
+            String token = refreshKeys.sign(JWT.create()
+                    .withIssuer(ISSUER)
+                    .withSubject(user.email())
+                    .withJWTId(UUID.randomUUID().toString()) // two refresh tokens are never equal, even within the same second
                     .withClaim("type", "refresh")
-                    .withExpiresAt(calculateRefreshTokenExpiration())
-                    .sign(algorithm);
+                    .withClaim("ver", user.tokenVersion())
+                    .withExpiresAt(calculateRefreshTokenExpiration()));
 
             return token;
         } catch (JWTCreationException e) {
@@ -180,18 +278,20 @@ public class TokenService {
 
     public TokenRequestDTO validateRefreshToken(String token) {
         try {
-            Algorithm algorithm = Algorithm.HMAC256(SECRET_KEY_REFRESH);
-            var decodedJWT = JWT.require(algorithm)
-                    .withIssuer("setup-auth")
-                    .withClaim("type", "refresh")
-                    .build()
-                    .verify(token);
+            var decodedJWT = refreshKeys.verify(token);
+
+            var tokenVersion = decodedJWT.getClaim("ver").asInt();
 
             TokenRequestDTO tokenRequest = new TokenRequestDTO(
                     decodedJWT.getSubject(),
                     decodedJWT.getSubject(),
                     decodedJWT.getClaim("type").asString(),
-                    decodedJWT.getExpiresAt().toString()
+                    decodedJWT.getExpiresAt().toString(),
+                    null,
+                    decodedJWT.getId() != null ? UUID.fromString(decodedJWT.getId()) : null,
+                    decodedJWT.getIssuedAtAsInstant(),
+                    decodedJWT.getExpiresAtAsInstant(),
+                    tokenVersion != null ? tokenVersion : 0
             );
 
             return tokenRequest;
@@ -201,4 +301,25 @@ public class TokenService {
         }
     }
 
+    /**
+     * Token version a refresh token was issued with. The signature is not checked here,
+     * the token is only trusted once its fingerprint matches a stored row.
+     */
+    public int refreshTokenVersion(String token) {
+        try {
+            var tokenVersion = JWT.decode(token).getClaim("ver").asInt();
+            return tokenVersion != null ? tokenVersion : 0;
+        } catch (JWTDecodeException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Expiration of a refresh token this service just signed, so the stored row expires
+     * together with the JWT (jwt.refresh.token.expiration).
+     */
+    public Instant refreshTokenExpiresAt(String token) {
+        return JWT.decode(token).getExpiresAtAsInstant();
+    }
+
 }
@@ -0,0 +1,25 @@
+package com.setup.authentication.security;
+
+import com.setup.authentication.domain.entities.Role;
+
+import java.util.UUID;
+
+/**
+ * The user an access or refresh token is issued to, as read by login (UserCredentials) or
+ * refresh token rotation (RefreshTokenRepository.TokenOwner). Token minting never needs the
+ * User entity.
+ * <p>
+ * tokenVersion is read from the users row together with the rest, never from
+ * TokenVersionCache: a token minted with a stale cached version would either be rejected
+ * right away or outlive a logout-everywhere.
+ */
+public interface TokenSubject {
+
+    UUID id();
+
+    String email();
+
+    Role role();
+
+    int tokenVersion();
+}
@@ -0,0 +1,79 @@
+package com.setup.authentication.security;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.setup.authentication.config.ReadYourWritesGuard;
+import com.setup.authentication.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Cached per-user token version. Every access and refresh token carries the version it
+ * was issued with, so bumping the version invalidates all of a user's sessions at once.
+ * Other nodes see a bump once their entry expires (jwt.token-version.cache-ttl).
+ */
+@Component
+public class TokenVersionCache {
+
+    private final UserRepository userRepository;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final LoadingCache<UUID, Integer> versions;
+
+    public TokenVersionCache(
+            UserRepository userRepository,
+            ReadYourWritesGuard readYourWritesGuard,
+            @Value("${jwt.token-version.cache-size}") long maxSize,
+            @Value("${jwt.token-version.cache-ttl}") Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        this.userRepository = userRepository;
+        this.readYourWritesGuard = readYourWritesGuard;
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(userId -> readYourWritesGuard.read(userId, () -> userRepository.findTokenVersionById(userId)));
+
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "tokenVersions");
+    }
+
+    /**
+     * Current version of the user, or null when the user does not exist.
+     */
+    public Integer current(UUID userId) {
+        return versions.get(userId);
+    }
+
+    public boolean isCurrent(UUID userId, int tokenVersion) {
+        Integer current = current(userId);
+        return current != null && current == tokenVersion;
+    }
+
+    /**
+     * Invalidates every outstanding token of the user with a single-row update.
+     * Inside a transaction the entry is dropped after commit: dropped earlier, a concurrent
+     * request could reload the old version and keep it cached for the whole TTL.
+     */
+    public void bump(UUID userId) {
+        userRepository.incrementTokenVersion(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    readYourWritesGuard.recordWrite(userId);
+                    versions.invalidate(userId);
+                }
+            });
+        } else {
+            readYourWritesGuard.recordWrite(userId);
+            versions.invalidate(userId);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.setup.authentication.security;
+
+import com.setup.authentication.domain.entities.Role;
+import com.setup.authentication.domain.entities.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Read-only projection of a user, all that authentication needs. Loaded with a constructor
+ * query, so it skips the persistence context, dirty-check snapshots and unused columns.
+ */
+public record UserCredentials(
+        UUID id,
+        String email,
+        String passwordHash,
+        Role role,
+        boolean verified,
+        int tokenVersion
+) implements UserDetails, TokenSubject {
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return role.getAuthorities();
+    }
+
+    @Override
+    public String getPassword() {
+        return passwordHash;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    // from an entity already at hand, e.g. in tests
+    public static UserCredentials of(User user) {
+        return new UserCredentials(user.getId(), user.getEmail(), user.getPassword(), user.getRole(), user.isVerified(), user.getTokenVersion());
+    }
+}
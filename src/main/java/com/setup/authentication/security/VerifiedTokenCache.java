@@ -0,0 +1,83 @@
+package com.setup.authentication.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.setup.authentication.domain.dto.TokenRequestDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of access tokens that already passed signature verification.
+ * Entries are keyed by the SHA-256 of the token and expire with the token itself.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final boolean enabled;
+    private final LongSupplier clock;
+    private final Cache<ByteBuffer, TokenRequestDTO> cache;
+
+    @Autowired
+    public VerifiedTokenCache(
+            @Value("${jwt.access.cache.enabled}") boolean enabled,
+            @Value("${jwt.access.cache.max-size}") long maxSize,
+            MeterRegistry meterRegistry
+    ) {
+        this(enabled, maxSize, meterRegistry, System::currentTimeMillis);
+    }
+
+    VerifiedTokenCache(boolean enabled, long maxSize, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.enabled = enabled;
+        this.clock = clock;
+        // Caffeine evicts with W-TinyLFU once the size bound is reached
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.<ByteBuffer, TokenRequestDTO>creating(
+                        (key, value) -> Duration.between(now(), value.expiresAt())))
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.getAsLong()))
+                .recordStats()
+                .build();
+
+        if (enabled) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "verifiedAccessTokens");
+        }
+    }
+
+    public TokenRequestDTO get(String token) {
+        if (!enabled) return null;
+
+        ByteBuffer key = keyOf(token);
+        TokenRequestDTO tokenData = cache.getIfPresent(key);
+        if (tokenData == null) return null;
+
+        // expiry is also checked here so an entry is never served past exp, even before cleanup runs
+        if (!tokenData.expiresAt().isAfter(now())) {
+            cache.invalidate(key);
+            return null;
+        }
+        return tokenData;
+    }
+
+    public void put(String token, TokenRequestDTO tokenData) {
+        if (!enabled || tokenData.expiresAt() == null) return;
+        cache.put(keyOf(token), tokenData);
+    }
+
+    private Instant now() {
+        return Instant.ofEpochMilli(clock.getAsLong());
+    }
+
+    private ByteBuffer keyOf(String token) {
+        return ByteBuffer.wrap(TokenDigest.sha256(token));
+    }
+}
@@ -1,19 +1,30 @@
 package com.setup.authentication.services;
 
+import com.setup.authentication.config.ReadYourWritesGuard;
 import com.setup.authentication.domain.dto.*;
 import com.setup.authentication.domain.entities.RefreshToken;
 import com.setup.authentication.domain.entities.User;
 import com.setup.authentication.exceptions.*;
 import com.setup.authentication.repositories.RefreshTokenRepository;
 import com.setup.authentication.repositories.UserRepository;
+import com.setup.authentication.security.AccessTokenDenylist;
+import com.setup.authentication.security.LoginRateLimiter;
 import com.setup.authentication.security.TokenService;
-import jakarta.mail.MessagingException;
+import com.setup.authentication.security.TokenSubject;
+import com.setup.authentication.security.UserCredentials;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.annotation.Observed;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.UUID;
+
+// every public method gets a span (auth.service, contextual name AuthService#method)
+@Observed(name = "auth.service")
 @Service
 public class AuthService {
 
@@ -24,8 +35,12 @@ public class AuthService {
     private final MailService mailService;
     private final RefreshTokenService refreshTokenService;
     private final RefreshTokenRepository refreshTokenRepository;
+    private final AccessTokenDenylist accessTokenDenylist;
+    private final LoginRateLimiter loginRateLimiter;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final MeterRegistry meterRegistry;
 
-    public AuthService(UserRepository userRepository, UserService userService, AuthenticationManager authenticationManager, TokenService tokenService, MailService mailService, RefreshTokenService refreshTokenService, RefreshTokenRepository refreshTokenRepository) {
+    public AuthService(UserRepository userRepository, UserService userService, AuthenticationManager authenticationManager, TokenService tokenService, MailService mailService, RefreshTokenService refreshTokenService, RefreshTokenRepository refreshTokenRepository, AccessTokenDenylist accessTokenDenylist, LoginRateLimiter loginRateLimiter, ReadYourWritesGuard readYourWritesGuard, MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
         this.userService = userService;
         this.authenticationManager = authenticationManager;
@@ -33,30 +48,24 @@ public class AuthService {
         this.mailService = mailService;
         this.refreshTokenService = refreshTokenService;
         this.refreshTokenRepository = refreshTokenRepository;
+        this.accessTokenDenylist = accessTokenDenylist;
+        this.loginRateLimiter = loginRateLimiter;
+        this.readYourWritesGuard = readYourWritesGuard;
+        this.meterRegistry = meterRegistry;
     }
 
     @Transactional
     public RegisterResponseDTO register(RegisterRequestDTO request) {
 
-        // Check if user already exists
-        if (userRepository.findByEmail(request.email()) != null) {
-            // TO-DO: custom exception
-            throw new EmailExistException("Email already registered");
-        }
-
-        // Create new user
+        // Create new user, the insert itself rejects a taken email (EmailExistException)
         User newUser = userService.createUser(request);
-        User savedUser = userService.saveUser(newUser);
+        User savedUser = userService.registerUser(newUser);
 
         // Generate email confirmation token
         String confirmationToken = tokenService.generateEmailConfirmationToken(savedUser.getEmail());
 
-        // Send confirmation email
-        try {
-            mailService.sendEmailConfirmation(savedUser.getEmail(), confirmationToken);
-        } catch (Exception e) {
-            throw new ErrorInSendEmailConfirmation("Error sending confirmation email" + e);
-        }
+        // Queue confirmation email, sent by the MailDispatcher once this transaction commits
+        mailService.enqueueEmailConfirmation(savedUser.getEmail(), confirmationToken);
 
         return new RegisterResponseDTO(
                 savedUser.getEmail(),
@@ -65,21 +74,39 @@ public class AuthService {
         );
     }
 
-    public AuthTokenDTO login(LoginRequestDTO request) {
-        var user = new UsernamePasswordAuthenticationToken(request.email(), request.password());
-        var auth = authenticationManager.authenticate(user);
-
-        if (auth.getPrincipal() == null) {
-            throw new LoginFailedException("Authentication failed");
+    public AuthTokenDTO login(LoginRequestDTO request, String clientIp) {
+        // the stages are timed on their own: auth.password.hash, auth.user.lookup, auth.token.sign, auth.refresh.create
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            // rejected before the AuthenticationManager runs BCrypt
+            loginRateLimiter.checkAttempt(clientIp, request.email());
+
+            var user = new UsernamePasswordAuthenticationToken(request.email(), request.password());
+            var auth = authenticationManager.authenticate(user);
+
+            if (auth.getPrincipal() == null) {
+                throw new LoginFailedException("Authentication failed");
+            }
+
+            // UserDetailsServiceImpl loads a projection, not the entity
+            UserCredentials authenticatedUser = (UserCredentials) auth.getPrincipal();
+            String accessToken = tokenService.generateToken(authenticatedUser);
+
+            // create and save refresh token
+            String refreshToken = refreshTokenService.createRefreshToken(authenticatedUser);
+
+            outcome = "success";
+            return new AuthTokenDTO(accessToken, refreshToken);
+        } catch (TooManyLoginAttemptsException e) {
+            outcome = "throttled";
+            throw e;
+        } catch (PasswordHashingUnavailableException e) {
+            outcome = "unavailable";
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("auth.login", "outcome", outcome));
         }
-
-        User authenticatedUser = (User) auth.getPrincipal();
-        String accessToken = tokenService.generateToken(authenticatedUser);
-
-        // create and save refresh token
-        String refreshToken = refreshTokenService.createRefreshToken(authenticatedUser);
-
-        return new AuthTokenDTO(accessToken, refreshToken);
     }
 
     public void confirmEmail(String token) {
@@ -87,7 +114,7 @@ public class AuthService {
         TokenRequestDTO tokenRequest = tokenService.validateEmailConfirmationToken(token);
 
         //get user
-        User user = (User) userRepository.findByEmail(tokenRequest.email());
+        User user = (User) readYourWritesGuard.read(tokenRequest.email(), () -> userRepository.findByEmail(tokenRequest.email()));
         if (user == null) {
             throw new UsernameNotFoundException("User not found");
         }
@@ -96,7 +123,7 @@ public class AuthService {
 
         //confirm email
         user.setVerified(true);
-        userRepository.save(user);
+        userService.saveUser(user);
     }
 
     public void sendEmailConfirmation(String email) {
@@ -104,12 +131,8 @@ public class AuthService {
         // generate token
         String emailConfirmationToken = tokenService.generateEmailConfirmationToken(email);
 
-        //send email
-        try {
-            mailService.sendEmailConfirmation(email, emailConfirmationToken);
-        } catch (MessagingException e) {
-            throw new ErrorInSendEmailConfirmation("Error sending email confirmation " + e);
-        }
+        //queue email
+        mailService.enqueueEmailConfirmation(email, emailConfirmationToken);
     }
 
     public void sendResetPassword(String email) {
@@ -117,12 +140,8 @@ public class AuthService {
         //get token
         String resetPasswordToken = tokenService.generateResetPasswordToken(email);
 
-        //send email
-        try {
-            mailService.sendEmailResetPassword(email, resetPasswordToken);
-        } catch (MessagingException e) {
-            throw new ErrorInSendPasswordReset("Error sending reset password " + e);
-        }
+        //queue email
+        mailService.enqueueEmailResetPassword(email, resetPasswordToken);
     }
 
     public void resetPassword(ResetPasswordRequestDTO request) {
@@ -131,7 +150,7 @@ public class AuthService {
         TokenRequestDTO tokenData = tokenService.validateResetPasswordToken(request.token());
 
         //get user
-        User user = (User) userRepository.findByEmail(tokenData.email());
+        User user = (User) readYourWritesGuard.read(tokenData.email(), () -> userRepository.findByEmail(tokenData.email()));
         if (user == null) {
             throw new UsernameNotFoundException("User not found");
         }
@@ -141,15 +160,11 @@ public class AuthService {
 
     }
 
-    @Transactional
+    @Transactional(noRollbackFor = RevokedRefreshTokenException.class)
     public AuthTokenDTO refreshToken(String refreshToken) {
 
-        var refreshTokenEntity = refreshTokenService.validateRefreshToken(refreshToken);
-
-        User user = refreshTokenEntity.getUser();
-
-        // revoke old refresh token
-        refreshTokenService.revokeToken(refreshToken);
+        // revoke old refresh token and get its owner in one statement
+        TokenSubject user = refreshTokenService.rotate(refreshToken);
 
         // Generate new tokens
         String newAccessToken = tokenService.generateToken(user);
@@ -159,14 +174,30 @@ public class AuthService {
     }
 
     @Transactional
-    public void logout(RefreshTokenRequestDTO request) {
-        RefreshToken token = refreshTokenRepository.findByToken(request.refreshToken())
+    public void logout(RefreshTokenRequestDTO request, String accessToken) {
+        RefreshToken token = refreshTokenService.findByToken(request.refreshToken())
                 .orElseThrow(() -> new RefreshTokenNotFoundException("Refresh token not found"));
 
         if (token.isRevoked()) {
             throw new RevokedRefreshTokenException("Refresh token is revoked");
         }
+
+        // access tokens stay valid until they expire unless they are put on the denylist
+        if (accessToken != null) {
+            try {
+                TokenRequestDTO tokenData = tokenService.validateToken(accessToken);
+                accessTokenDenylist.revoke(tokenData.tokenId(), tokenData.expiresAt());
+            } catch (InvalidAccessTokenException | RevokedAccessTokenException e) {
+                // already expired, invalid or revoked: nothing left to revoke
+            }
+        }
+
         refreshTokenService.revokeToken(request.refreshToken());
     }
 
+    // invalidates every access and refresh token of the user, on every device
+    public void logoutEverywhere(UUID userId) {
+        refreshTokenService.revokeAllUserTokens(userId);
+    }
+
 }
@@ -0,0 +1,194 @@
+package com.setup.authentication.services;
+
+import com.setup.authentication.domain.dto.MailDTO;
+import com.setup.authentication.domain.entities.MailOutbox;
+import com.setup.authentication.domain.entities.MailStatus;
+import com.setup.authentication.repositories.MailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.Span;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class MailDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(MailDispatcher.class);
+
+    private final MailOutboxRepository mailOutboxRepository;
+    private final MailService mailService;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final ObservationRegistry observationRegistry;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Counter abandonedCounter;
+
+    @Value("${mail.outbox.batch-size}")
+    private int batchSize;
+
+    @Value("${mail.outbox.max-attempts}")
+    private int maxAttempts;
+
+    @Value("${mail.outbox.backoff}")
+    private Duration backoff;
+
+    @Value("${mail.outbox.max-backoff}")
+    private Duration maxBackoff;
+
+    @Value("${mail.outbox.lease}")
+    private Duration lease;
+
+    public MailDispatcher(MailOutboxRepository mailOutboxRepository, MailService mailService, JavaMailSender mailSender,
+                          PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                          ObservationRegistry observationRegistry) {
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.mailService = mailService;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.observationRegistry = observationRegistry;
+
+        this.sentCounter = Counter.builder("auth.mail.sent")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("auth.mail.failures")
+                .description("Mails that failed to send and will be retried")
+                .tag("final", "false")
+                .register(meterRegistry);
+        this.abandonedCounter = Counter.builder("auth.mail.failures")
+                .tag("final", "true")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Drains one batch of pending mails from the outbox.
+     * The batch is claimed with a lease in a short transaction, sent through a single SMTP
+     * connection outside any transaction, and the outcomes are stored in a second short one,
+     * so no row lock or pooled connection is held while SMTP is slow.
+     * A dispatcher that dies mid-batch leaves its mails to be retried once the lease expires.
+     */
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval}")
+    public void dispatch() {
+        Instant now = Instant.now();
+        List<MailOutbox> batch = claim(now);
+        if (batch.isEmpty()) return;
+
+        SimpleMailMessage[] messages = batch.stream()
+                .map(mail -> mailService.toMessage(new MailDTO(mail.getSender(), mail.getRecipient(), mail.getSubject(), mail.getBody())))
+                .toArray(SimpleMailMessage[]::new);
+
+        // one span per mail in the trace of the request that queued it, ended once its outcome is known
+        List<Span> deliveries = batch.stream().map(mailService::startDeliverySpan).toList();
+        try {
+            deliver(batch, messages, deliveries, now);
+        } finally {
+            deliveries.forEach(Span::end);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> mailOutboxRepository.saveAll(batch));
+    }
+
+    private List<MailOutbox> claim(Instant now) {
+        return transactionTemplate.execute(status -> {
+            List<MailOutbox> due = mailOutboxRepository.findDueForDispatch(MailStatus.PENDING, now, PageRequest.of(0, batchSize));
+            due.forEach(mail -> mail.setLeasedUntil(now.plus(lease)));
+            return due;
+        });
+    }
+
+    private void deliver(List<MailOutbox> batch, SimpleMailMessage[] messages, List<Span> deliveries, Instant now) {
+        Map<Object, Exception> failedMessages = Map.of();
+        // auth.mail.send: span and timer around the SMTP call
+        Observation send = Observation.createNotStarted("auth.mail.send", observationRegistry)
+                .highCardinalityKeyValue("mail.batch.size", String.valueOf(messages.length))
+                .start();
+        try (Observation.Scope scope = send.openScope()) {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            send.error(e);
+            // partial failure, only the failed messages are retried
+            failedMessages = e.getFailedMessages();
+            if (failedMessages.isEmpty()) {
+                failAll(batch, deliveries, e, now);
+                return;
+            }
+        } catch (MailException e) {
+            send.error(e);
+            failAll(batch, deliveries, e, now);
+            return;
+        } finally {
+            send.stop();
+        }
+
+        int sent = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Exception error = failedMessages.get(messages[i]);
+            if (error == null) {
+                markSent(batch.get(i), now);
+                sent++;
+            } else {
+                deliveries.get(i).error(error);
+                markFailed(batch.get(i), error, now);
+            }
+        }
+        logger.debug("Dispatched {} of {} outbox mails", sent, batch.size());
+    }
+
+    private void failAll(List<MailOutbox> batch, List<Span> deliveries, Exception error, Instant now) {
+        logger.warn("Error sending outbox batch of {} mails", batch.size(), error);
+        deliveries.forEach(span -> span.error(error));
+        batch.forEach(mail -> markFailed(mail, error, now));
+    }
+
+    private void markSent(MailOutbox mail, Instant now) {
+        mail.setStatus(MailStatus.SENT);
+        mail.setSentAt(now);
+        mail.setAttempts(mail.getAttempts() + 1);
+        mail.setLastError(null);
+        mail.setLeasedUntil(null);
+        sentCounter.increment();
+    }
+
+    private void markFailed(MailOutbox mail, Exception error, Instant now) {
+        int attempts = mail.getAttempts() + 1;
+        mail.setAttempts(attempts);
+        mail.setLastError(truncate(String.valueOf(error.getMessage())));
+        mail.setLeasedUntil(null);
+
+        if (attempts >= maxAttempts) {
+            abandonedCounter.increment();
+            mail.setStatus(MailStatus.FAILED);
+            logger.error("Giving up on outbox mail {} after {} attempts", mail.getId(), attempts);
+            return;
+        }
+
+        failedCounter.increment();
+
+        // exponential backoff: backoff, 2x backoff, 4x backoff... capped at max-backoff
+        Duration delay = backoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        if (delay.compareTo(maxBackoff) > 0) {
+            delay = maxBackoff;
+        }
+        mail.setNextAttemptAt(now.plus(delay));
+    }
+
+    private String truncate(String message) {
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
@@ -0,0 +1,71 @@
+package com.setup.authentication.services;
+
+import com.setup.authentication.repositories.MailOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Deletes sent and abandoned outbox mails once they are older than mail.outbox.retention,
+ * in small batches with a pause in between, so mail_outbox only holds recent history.
+ */
+@Service
+public class MailOutboxPurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MailOutboxPurgeService.class);
+
+    private final MailOutboxRepository mailOutboxRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${mail.outbox.retention}")
+    private Duration retention;
+
+    @Value("${mail.outbox.purge.batch-size}")
+    private int batchSize;
+
+    @Value("${mail.outbox.purge.pause}")
+    private Duration pause;
+
+    @Value("${mail.outbox.purge.max-duration}")
+    private Duration maxDuration;
+
+    public MailOutboxPurgeService(MailOutboxRepository mailOutboxRepository, MeterRegistry meterRegistry) {
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Scheduled(cron = "${mail.outbox.purge.cron}")
+    public long purge() {
+        Instant cutoff = Instant.now().minus(retention);
+        long started = System.nanoTime();
+        long deadline = started + maxDuration.toNanos();
+        long deleted = 0;
+
+        while (true) {
+            long batch = mailOutboxRepository.deleteFinishedBatch(cutoff, batchSize);
+            deleted += batch;
+
+            if (batch < batchSize || System.nanoTime() > deadline) {
+                break;
+            }
+
+            try {
+                Thread.sleep(pause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+        meterRegistry.counter("auth.mail.purge.deleted").increment(deleted);
+        logger.info("Purged {} finished outbox mails older than {} in {} ms", deleted, retention, elapsed.toMillis());
+        return deleted;
+    }
+}
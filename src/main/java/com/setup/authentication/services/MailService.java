@@ -1,18 +1,30 @@
 package com.setup.authentication.services;
 
 import com.setup.authentication.domain.dto.MailDTO;
+import com.setup.authentication.domain.entities.MailOutbox;
+import com.setup.authentication.repositories.MailOutboxRepository;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
 import jakarta.mail.MessagingException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 public class MailService {
 
     private final JavaMailSender mailSender;
+    private final MailOutboxRepository mailOutboxRepository;
+    private final Tracer tracer;
+    private final Propagator propagator;
 
     @Value("${spring.mail.username}")
     private String hostEmail;
@@ -23,45 +35,120 @@ public class MailService {
     @Value("${spring.mail.resetpassword.url}")
     private String resetPasswordUrl;
 
-    public MailService(JavaMailSender mailSender) {
+    public MailService(JavaMailSender mailSender, MailOutboxRepository mailOutboxRepository,
+                       ObjectProvider<Tracer> tracer, ObjectProvider<Propagator> propagator) {
         this.mailSender = mailSender;
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.tracer = tracer.getIfAvailable(() -> Tracer.NOOP);
+        this.propagator = propagator.getIfAvailable(() -> Propagator.NOOP);
     }
 
     public void sendEmail(MailDTO mailDto) throws MessagingException {
+        mailSender.send(toMessage(mailDto));
+    }
+
+    /**
+     * Stores the mail in the outbox, joining the caller's transaction if there is one.
+     * The MailDispatcher delivers it asynchronously.
+     */
+    @Transactional
+    public void enqueue(MailDTO mailDto) {
+        mailOutboxRepository.save(toOutbox(mailDto, currentTraceparent()));
+    }
+
+    /**
+     * Stores many mails at once, inserted with Hibernate's JDBC batching (hibernate.jdbc.batch_size).
+     */
+    @Transactional
+    public void enqueueAll(List<MailDTO> mails) {
+        if (mails.isEmpty()) return;
+
+        String traceparent = currentTraceparent();
+        mailOutboxRepository.saveAll(mails.stream().map(mail -> toOutbox(mail, traceparent)).toList());
+    }
+
+    public void sendEmailConfirmation(String email, String token) throws MessagingException {
+        sendEmail(emailConfirmation(email, token));
+    }
+
+    public void enqueueEmailConfirmation(String email, String token) {
+        enqueue(emailConfirmation(email, token));
+    }
+
+    /**
+     * Queues one confirmation mail per email, keyed email to confirmation token.
+     */
+    public void enqueueEmailConfirmations(Map<String, String> tokensByEmail) {
+        enqueueAll(tokensByEmail.entrySet().stream()
+                .map(entry -> emailConfirmation(entry.getKey(), entry.getValue()))
+                .toList());
+    }
+
+    public void sendEmailResetPassword(String email, String token) throws MessagingException {
+        sendEmail(emailResetPassword(email, token));
+    }
+
+    public void enqueueEmailResetPassword(String email, String token) {
+        enqueue(emailResetPassword(email, token));
+    }
+
+    private MailOutbox toOutbox(MailDTO mailDto, String traceparent) {
+        MailOutbox mail = new MailOutbox();
+        mail.setSender(mailDto.from());
+        mail.setRecipient(mailDto.to());
+        mail.setSubject(mailDto.subject());
+        mail.setBody(mailDto.body());
+        mail.setTraceparent(traceparent);
+        return mail;
+    }
+
+    private String currentTraceparent() {
+        Span span = tracer.currentSpan();
+        if (span == null) return null;
+
+        Map<String, String> carrier = new HashMap<>();
+        propagator.inject(span.context(), carrier, Map::put);
+        return carrier.get("traceparent");
+    }
+
+    /**
+     * Starts a span for delivering an outbox mail, parented to the request that queued it.
+     */
+    public Span startDeliverySpan(MailOutbox mail) {
+        if (mail.getTraceparent() == null) {
+            return tracer.nextSpan().name("mail deliver").start();
+        }
+        return propagator.extract(Map.of("traceparent", mail.getTraceparent()), Map::get)
+                .name("mail deliver")
+                .start();
+    }
+
+    public SimpleMailMessage toMessage(MailDTO mailDto) {
         SimpleMailMessage message = new SimpleMailMessage();
         message.setTo(mailDto.to()); // user
         message.setSubject(mailDto.subject()); // title
         message.setText(mailDto.body()); // content
         message.setFrom(mailDto.from()); // me
-
-        mailSender.send(message);
+        return message;
     }
 
-    public void sendEmailConfirmation(String email, String token) throws MessagingException {
-
-        MailDTO mail = new MailDTO(
+    private MailDTO emailConfirmation(String email, String token) {
+        return new MailDTO(
                 hostEmail,
                 email,
                 "Email Confirmation",
                 "Please confirm your email by clicking the following link: " +
                         confirmationUrl + token
         );
-
-        sendEmail(mail);
-
     }
 
-    public void sendEmailResetPassword(String email, String token) throws MessagingException {
-
-        MailDTO mail = new MailDTO(
+    private MailDTO emailResetPassword(String email, String token) {
+        return new MailDTO(
                 hostEmail,
                 email,
                 "Password Reset",
                 "You can reset your password by clicking the following link: " +
                         resetPasswordUrl + token
         );
-
-        sendEmail(mail);
-
     }
 }
@@ -0,0 +1,173 @@
+package com.setup.authentication.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Keeps refresh_tokens range-partitioned by month of expiry_date: creates the partitions
+ * new tokens will land in and drops whole months once every token in them has expired.
+ * Partition bounds are UTC month starts, whatever the session time zone.
+ * <p>
+ * Every node runs this, so each change happens under one transaction-scoped advisory lock.
+ */
+@Service
+public class RefreshTokenPartitionManager implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenPartitionManager.class);
+
+    private static final String PARTITION_PREFIX = "refresh_tokens_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String DEFAULT_PARTITION = "refresh_tokens_default";
+    // pg_advisory_xact_lock key shared by all nodes, any constant unused elsewhere
+    private static final long ADVISORY_LOCK_KEY = 0x7265667265736854L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final Counter droppedPartitions;
+
+    @Value("${refresh-token.partitioning.enabled}")
+    private boolean enabled;
+
+    @Value("${refresh-token.partitioning.months-ahead}")
+    private int monthsAhead;
+
+    public RefreshTokenPartitionManager(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.clock = Clock.systemUTC();
+        this.droppedPartitions = Counter.builder("auth.refresh.partitions.dropped")
+                .description("Expired refresh token partitions dropped")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Runs once every singleton exists, so after Hibernate created or updated the schema but
+     * before the web server and the schedulers start: no request sees the table mid-conversion.
+     * The first conversion copies the whole table, and every node's startup waits for it on
+     * the advisory lock; run the script beforehand to avoid that (see application.properties).
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) return;
+
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("db/partitioning/refresh-tokens-partitioned.sql"));
+        populator.setSeparator(ScriptUtils.EOF_STATEMENT_SEPARATOR);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            lock();
+            // on the transaction's connection, so the conversion commits or rolls back with the rest
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                populator.populate(connection);
+                return null;
+            });
+            createAndDrop();
+        });
+    }
+
+    public void maintain() {
+        transactionTemplate.executeWithoutResult(status -> {
+            lock();
+            createAndDrop();
+        });
+    }
+
+    /**
+     * Tokens expiring in a month without partition land in the default partition, and
+     * Postgres refuses to create a partition whose range still has rows there. So the new
+     * partition is created detached, those rows are moved into it, and then it is attached.
+     */
+    public void createPartition(YearMonth month) {
+        String partition = partitionName(month);
+        String from = monthStart(month);
+        String to = monthStart(month.plusMonths(1));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            Integer exists = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM pg_class WHERE relname = ?", Integer.class, partition);
+            if (exists != null && exists > 0) return;
+
+            jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE refresh_tokens INCLUDING DEFAULTS)");
+            int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                    + " WHERE expiry_date >= " + from + " AND expiry_date < " + to + " RETURNING *)"
+                    + " INSERT INTO " + partition + " SELECT * FROM moved");
+            jdbcTemplate.execute("ALTER TABLE refresh_tokens ATTACH PARTITION " + partition
+                    + " FOR VALUES FROM (" + from + ") TO (" + to + ")");
+            if (moved > 0) {
+                logger.info("Moved {} refresh tokens from the default partition into {}", moved, partition);
+            }
+        });
+    }
+
+    /**
+     * A month partition only holds tokens expiring within that month, so once the month
+     * is over it can be dropped as a whole.
+     */
+    public int dropExpiredPartitions() {
+        YearMonth current = YearMonth.now(clock);
+        List<String> partitions = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                WHERE p.relname = 'refresh_tokens' AND c.relname LIKE 'refresh\\_tokens\\_p%'
+                """, String.class);
+
+        int dropped = 0;
+        for (String partition : partitions) {
+            YearMonth month = YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+            if (month.isBefore(current)) {
+                jdbcTemplate.execute("ALTER TABLE refresh_tokens DETACH PARTITION " + partition);
+                jdbcTemplate.execute("DROP TABLE " + partition);
+                logger.info("Dropped expired refresh token partition {} (expired before {})", partition,
+                        month.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC));
+                dropped++;
+                droppedPartitions.increment();
+            }
+        }
+        return dropped;
+    }
+
+    private void createAndDrop() {
+        YearMonth current = YearMonth.now(clock);
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartition(current.plusMonths(i));
+        }
+        dropExpiredPartitions();
+    }
+
+    // waits for another node's conversion or maintenance, released on commit or rollback
+    private void lock() {
+        jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + ADVISORY_LOCK_KEY + ")");
+    }
+
+    private String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+
+    // explicit UTC offset, a bare date would be read in the session time zone
+    private static String monthStart(YearMonth month) {
+        return "timestamptz '" + month.atDay(1) + " 00:00:00+00'";
+    }
+}
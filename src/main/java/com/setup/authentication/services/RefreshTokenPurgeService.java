@@ -0,0 +1,107 @@
+package com.setup.authentication.services;
+
+import com.setup.authentication.repositories.RefreshTokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Deletes expired refresh tokens in small batches, each in its own short transaction,
+ * pausing between batches so the purge never holds long locks or floods the WAL.
+ */
+@Service
+public class RefreshTokenPurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenPurgeService.class);
+
+    public enum PurgeMode {
+        EXPIRED,
+        REVOKED_AND_EXPIRED
+    }
+
+    public record PurgeResult(PurgeMode mode, long deleted, Duration elapsed, long backlog) {
+
+        public double rowsPerSecond() {
+            return elapsed.isZero() ? deleted : deleted * 1000.0 / elapsed.toMillis();
+        }
+    }
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final MeterRegistry meterRegistry;
+
+    // expiry dates only move forward, so every expired row below the watermark is already gone
+    private final AtomicReference<Instant> expiredWatermark = new AtomicReference<>(Instant.EPOCH);
+
+    @Value("${refresh-token.purge.batch-size}")
+    private int batchSize;
+
+    @Value("${refresh-token.purge.pause}")
+    private Duration pause;
+
+    @Value("${refresh-token.purge.max-duration}")
+    private Duration maxDuration;
+
+    public RefreshTokenPurgeService(RefreshTokenRepository refreshTokenRepository, MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public PurgeResult purge(PurgeMode mode) {
+        Instant now = Instant.now();
+        long started = System.nanoTime();
+        long deadline = started + maxDuration.toNanos();
+
+        // revoking does not move the expiry date, so the revoked purge always starts from the beginning
+        Instant watermark = mode == PurgeMode.EXPIRED ? expiredWatermark.get() : Instant.EPOCH;
+        long deleted = 0;
+
+        while (true) {
+            var batch = mode == PurgeMode.EXPIRED
+                    ? refreshTokenRepository.deleteExpiredBatch(watermark, now, batchSize)
+                    : refreshTokenRepository.deleteRevokedAndExpiredBatch(watermark, now, batchSize);
+
+            deleted += batch.getDeleted();
+            if (batch.getWatermark() != null) {
+                watermark = batch.getWatermark();
+                if (mode == PurgeMode.EXPIRED) {
+                    expiredWatermark.set(watermark);
+                }
+            }
+
+            if (batch.getDeleted() < batchSize || System.nanoTime() > deadline) {
+                break;
+            }
+
+            if (!sleep(pause)) {
+                break;
+            }
+        }
+
+        long backlog = mode == PurgeMode.EXPIRED
+                ? refreshTokenRepository.countByExpiryDateBefore(now)
+                : refreshTokenRepository.countByRevokedTrueAndExpiryDateBefore(now);
+
+        var result = new PurgeResult(mode, deleted, Duration.ofNanos(System.nanoTime() - started), backlog);
+        meterRegistry.counter("auth.refresh.purge.deleted", "mode", mode.name()).increment(deleted);
+        meterRegistry.timer("auth.refresh.purge", "mode", mode.name()).record(result.elapsed());
+        logger.info("Purged {} refresh tokens ({}) in {} ms, {} rows/s, backlog {}",
+                result.deleted(), mode, result.elapsed().toMillis(), String.format("%.1f", result.rowsPerSecond()), result.backlog());
+        return result;
+    }
+
+    private boolean sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,55 +1,106 @@
 package com.setup.authentication.services;
 
+import com.setup.authentication.config.ReadYourWritesGuard;
 import com.setup.authentication.domain.entities.RefreshToken;
 import com.setup.authentication.domain.entities.User;
 import com.setup.authentication.exceptions.RefreshTokenExpired;
 import com.setup.authentication.exceptions.RefreshTokenNotFoundException;
 import com.setup.authentication.exceptions.RevokedRefreshTokenException;
 import com.setup.authentication.repositories.RefreshTokenRepository;
+import com.setup.authentication.repositories.UserRepository;
+import com.setup.authentication.security.TokenDigest;
 import com.setup.authentication.security.TokenService;
+import com.setup.authentication.security.TokenSubject;
+import com.setup.authentication.security.TokenVersionCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Service
-public class RefreshTokenService {
+public class RefreshTokenService implements DisposableBean {
 
     private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
 
     private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
     private final TokenService tokenService;
+    private final RefreshTokenPurgeService refreshTokenPurgeService;
+    private final RefreshTokenPartitionManager refreshTokenPartitionManager;
+    private final TokenVersionCache tokenVersionCache;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final MeterRegistry meterRegistry;
+    private final Timer createTimer;
+    // one cleanup at a time, a run that is still going makes the next one skip
+    private final ThreadPoolExecutor maintenanceExecutor = new ThreadPoolExecutor(
+            1, 1, 0L, TimeUnit.MILLISECONDS, new SynchronousQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "refresh-token-maintenance");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
 
-    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, TokenService tokenService) {
+    @Value("${refresh-token.expired-lookback}")
+    private Duration expiredLookback;
+
+    @Value("${refresh-token.reuse-grace}")
+    private Duration reuseGrace;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, UserRepository userRepository, TokenService tokenService, RefreshTokenPurgeService refreshTokenPurgeService, RefreshTokenPartitionManager refreshTokenPartitionManager, TokenVersionCache tokenVersionCache, ReadYourWritesGuard readYourWritesGuard, MeterRegistry meterRegistry) {
         this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
         this.tokenService = tokenService;
+        this.refreshTokenPurgeService = refreshTokenPurgeService;
+        this.refreshTokenPartitionManager = refreshTokenPartitionManager;
+        this.tokenVersionCache = tokenVersionCache;
+        this.readYourWritesGuard = readYourWritesGuard;
+        this.meterRegistry = meterRegistry;
+        this.createTimer = Timer.builder("auth.refresh.create")
+                .description("Time inserting a refresh token")
+                .register(meterRegistry);
     }
 
     @Transactional
-    public String createRefreshToken(User user) {
+    public String createRefreshToken(TokenSubject user) {
         // Gera o token JWT
         String tokenValue = tokenService.generateRefreshToken(user);
 
-        // Cria a entidade no banco
+        // Cria a entidade no banco, the owner is only a reference for the foreign key (no select)
         RefreshToken refreshToken = new RefreshToken();
-        refreshToken.setToken(tokenValue);
-        refreshToken.setUser(user);
-        refreshToken.setExpiryDate(Instant.now().plus(30, ChronoUnit.DAYS));
+        refreshToken.setTokenHash(TokenDigest.sha256(tokenValue));
+        refreshToken.setUser(userRepository.getReferenceById(user.id()));
+        // same lifetime as the JWT: rotation only checks the row, not the JWT's exp
+        refreshToken.setExpiryDate(tokenService.refreshTokenExpiresAt(tokenValue));
         refreshToken.setRevoked(false);
 
-        refreshTokenRepository.save(refreshToken);
+        createTimer.record(() -> refreshTokenRepository.save(refreshToken));
 
         return tokenValue;
     }
 
+    // active tokens only, the expiry bound lets a partitioned table skip expired months
+    public Optional<RefreshToken> findByToken(String token) {
+        return refreshTokenRepository.findByTokenHashAndExpiryDateAfter(TokenDigest.sha256(token), Instant.now());
+    }
+
     @Transactional
     public RefreshToken validateRefreshToken(String token) {
-        Optional<RefreshToken> refreshTokenOpt = refreshTokenRepository.findByToken(token);
+        Optional<RefreshToken> refreshTokenOpt = findRecent(TokenDigest.sha256(token));
 
         if (refreshTokenOpt.isEmpty()) {
             throw new RefreshTokenNotFoundException();
@@ -68,43 +119,143 @@ public class RefreshTokenService {
         return refreshToken;
     }
 
+    /**
+     * Revokes the presented refresh token and returns its owner as read by the revoking
+     * statement, enough to issue the next pair of tokens without loading the user.
+     * A token that was already revoked means it is being reused (stolen or replayed), so
+     * every session of its owner is revoked. The exception is a token rotated less than
+     * refresh-token.reuse-grace ago: that is a client refreshing twice (two tabs, a retry
+     * after a timeout), whose late request is only rejected.
+     * An active token issued with an older token version was logged out everywhere.
+     */
+    @Transactional(noRollbackFor = RevokedRefreshTokenException.class)
+    public TokenSubject rotate(String token) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "rotated";
+        try {
+            return doRotate(token);
+        } catch (RefreshTokenNotFoundException e) {
+            outcome = "not_found";
+            throw e;
+        } catch (RevokedRefreshTokenException e) {
+            outcome = "revoked";
+            throw e;
+        } catch (RefreshTokenExpired e) {
+            outcome = "expired";
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("auth.refresh.rotate", "outcome", outcome));
+        }
+    }
+
+    private TokenSubject doRotate(String token) {
+        byte[] tokenHash = TokenDigest.sha256(token);
+
+        int tokenVersion = tokenService.refreshTokenVersion(token);
+
+        Optional<RefreshTokenRepository.TokenOwner> owner = refreshTokenRepository.revokeActiveToken(tokenHash, Instant.now(), tokenVersion);
+        if (owner.isPresent()) {
+            var tokenOwner = owner.get();
+            // the owner's next requests read the session state from the primary for a while
+            readYourWritesGuard.recordWrite(tokenOwner.getId());
+            return tokenOwner;
+        }
+
+        // slow path, only to report why the rotation failed
+        RefreshToken refreshToken = findRecent(tokenHash)
+                .orElseThrow(RefreshTokenNotFoundException::new);
+
+        if (refreshToken.isRevoked() && refreshToken.getRotatedAt() != null
+                && refreshToken.getRotatedAt().isAfter(Instant.now().minus(reuseGrace))) {
+            logger.info("Refresh token of user {} presented again right after its rotation", refreshToken.getUser().getId());
+            throw new RevokedRefreshTokenException();
+        }
+
+        if (refreshToken.isRevoked()) {
+            logger.warn("Refresh token reuse detected for user {}, revoking all sessions", refreshToken.getUser().getId());
+            revokeAllUserTokens(refreshToken.getUser());
+            throw new RevokedRefreshTokenException();
+        }
+
+        if (refreshToken.getExpiryDate().isAfter(Instant.now())) {
+            // still active, so it was issued before the user logged out everywhere
+            throw new RevokedRefreshTokenException();
+        }
+
+        throw new RefreshTokenExpired();
+    }
+
+    /**
+     * Active tokens and tokens expired within refresh-token.expired-lookback, so an expired
+     * token is still reported as expired while a partitioned table only scans recent months.
+     */
+    private Optional<RefreshToken> findRecent(byte[] tokenHash) {
+        return refreshTokenRepository.findByTokenHashAndExpiryDateAfter(tokenHash, Instant.now().minus(expiredLookback));
+    }
+
     @Transactional
     public void revokeToken(String token) {
-        Optional<RefreshToken> refreshTokenOpt = refreshTokenRepository.findByToken(token);
+        Optional<RefreshToken> refreshTokenOpt = findByToken(token);
         refreshTokenOpt.ifPresent(rt -> {
             rt.setRevoked(true);
             refreshTokenRepository.save(rt);
         });
     }
 
-    @Transactional
+    /**
+     * Logs the user out everywhere: bumping the token version invalidates every access and
+     * refresh token issued so far with one row update. The old rows are left to the purge.
+     */
     public void revokeAllUserTokens(User user) {
-        refreshTokenRepository.deleteByUser(user);
+        revokeAllUserTokens(user.getId());
+    }
+
+    public void revokeAllUserTokens(UUID userId) {
+        tokenVersionCache.bump(userId);
     }
 
     /**
      * Scheduled task that runs every day at 3 AM to clean up expired tokens
      * This prevents the database from filling up with old tokens
+     * Deletes in small batches, set refresh-token.purge.cron to a short interval to purge continuously
      */
-    @Scheduled(cron = "0 0 3 * * *") // Runs at 3:00 AM every day
-    @Transactional
+    @Scheduled(cron = "${refresh-token.purge.cron}") // Runs at 3:00 AM every day by default
     public void cleanupExpiredTokens() {
+        // the purge pauses between batches for up to max-duration, so it runs on its own thread and
+        // never holds the shared scheduler thread (mail outbox, denylist sync, key rotation)
+        try {
+            maintenanceExecutor.execute(this::runCleanup);
+        } catch (RejectedExecutionException e) {
+            logger.info("Skipping scheduled cleanup of expired refresh tokens, the previous run is still going");
+        }
+    }
+
+    private void runCleanup() {
         logger.info("Starting scheduled cleanup of expired refresh tokens");
         try {
-            refreshTokenRepository.deleteExpiredTokens(Instant.now());
+            if (refreshTokenPartitionManager.isEnabled()) {
+                // expired months are dropped as whole partitions
+                refreshTokenPartitionManager.maintain();
+            } else {
+                refreshTokenPurgeService.purge(RefreshTokenPurgeService.PurgeMode.EXPIRED);
+            }
             logger.info("Successfully cleaned up expired refresh tokens");
         } catch (Exception e) {
             logger.error("Error during cleanup of expired refresh tokens", e);
         }
     }
 
+    @Override
+    public void destroy() {
+        maintenanceExecutor.shutdownNow();
+    }
+
     /**
      * Manual cleanup method that can be called on-demand
      * Removes both expired and revoked tokens
      */
-    @Transactional
     public void cleanupOldTokens() {
         logger.info("Manual cleanup of old refresh tokens");
-        refreshTokenRepository.deleteRevokedAndExpiredTokens(Instant.now());
+        refreshTokenPurgeService.purge(RefreshTokenPurgeService.PurgeMode.REVOKED_AND_EXPIRED);
     }
 }
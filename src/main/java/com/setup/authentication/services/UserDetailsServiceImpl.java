@@ -1,6 +1,9 @@
 package com.setup.authentication.services;
 
+import com.setup.authentication.config.ReadYourWritesGuard;
 import com.setup.authentication.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -10,14 +13,21 @@ import org.springframework.stereotype.Service;
 public class UserDetailsServiceImpl implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final Timer lookupTimer;
 
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(UserRepository userRepository, ReadYourWritesGuard readYourWritesGuard, MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
+        this.readYourWritesGuard = readYourWritesGuard;
+        // the database part of a login, always a fresh read
+        this.lookupTimer = Timer.builder("auth.user.lookup")
+                .description("Time loading a user by email")
+                .register(meterRegistry);
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        UserDetails user = userRepository.findByEmail(username);
+        UserDetails user = lookupTimer.record(() -> readYourWritesGuard.read(username, () -> userRepository.findCredentialsByEmail(username)));
         if (user == null) {
             throw new UsernameNotFoundException("User not found with email: " + username);
         }
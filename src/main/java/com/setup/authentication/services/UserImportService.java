@@ -0,0 +1,324 @@
+package com.setup.authentication.services;
+
+import com.setup.authentication.config.ReadYourWritesGuard;
+import com.setup.authentication.domain.dto.UserImportReportDTO;
+import com.setup.authentication.domain.dto.UserImportRowDTO;
+import com.setup.authentication.domain.dto.UserImportRowResultDTO;
+import com.setup.authentication.domain.dto.UserImportRowResultDTO.Status;
+import com.setup.authentication.domain.entities.Role;
+import com.setup.authentication.domain.id.TimeOrderedUuidGenerator;
+import com.setup.authentication.security.BoundedPasswordEncoder;
+import com.setup.authentication.security.TokenService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Imports users in bulk from NDJSON or CSV. The input is read line by line and processed
+ * user-import.chunk-size rows at a time: plain passwords are hashed on a dedicated pool (the
+ * login pool keeps its capacity), then the chunk is inserted with one JDBC batch and its
+ * confirmation mails are queued in the same transaction.
+ * <p>
+ * Only the per-row report grows with the input.
+ */
+@Service
+public class UserImportService implements DisposableBean {
+
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    // the format BCryptPasswordEncoder produces, the only one the login path can verify
+    private static final Pattern BCRYPT_HASH = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}$");
+
+    // the JDBC driver must report per-statement counts, so keep reWriteBatchedInserts off
+    private static final String INSERT_USER = """
+            INSERT INTO users (id, email, password, role, is_verified, token_version, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, 0, ?, ?)
+            ON CONFLICT (email) DO NOTHING
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder hashingEncoder;
+    private final ExecutorService hashingPool;
+    private final TokenService tokenService;
+    private final MailService mailService;
+    private final ReadYourWritesGuard readYourWritesGuard;
+    private final JsonMapper jsonMapper;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+
+    public UserImportService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            PasswordEncoder passwordEncoder,
+            TokenService tokenService,
+            MailService mailService,
+            ReadYourWritesGuard readYourWritesGuard,
+            JsonMapper jsonMapper,
+            MeterRegistry meterRegistry,
+            @Value("${user-import.chunk-size}") int chunkSize,
+            @Value("${user-import.hashing.threads}") int hashingThreads
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // hash with the same BCrypt settings as logins, but outside their bounded pool
+        this.hashingEncoder = passwordEncoder instanceof BoundedPasswordEncoder bounded ? bounded.getDelegate() : passwordEncoder;
+        this.tokenService = tokenService;
+        this.mailService = mailService;
+        this.readYourWritesGuard = readYourWritesGuard;
+        this.jsonMapper = jsonMapper;
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = chunkSize;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.hashingPool = Executors.newFixedThreadPool(hashingThreads, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hashing-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public UserImportReportDTO importUsers(BufferedReader reader, Format format, boolean sendConfirmation) throws IOException {
+        List<UserImportRowResultDTO> results = new ArrayList<>();
+        List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+
+        long lineNumber = 0;
+        Map<String, Integer> columns = null;
+        if (format == Format.CSV) {
+            String header = reader.readLine();
+            if (header == null) {
+                return new UserImportReportDTO(0, 0, 0, List.of());
+            }
+            lineNumber++;
+            columns = csvColumns(header);
+        }
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) continue;
+
+            chunk.add(format == Format.CSV ? parseCsv(lineNumber, line, columns) : parseJson(lineNumber, line));
+            if (chunk.size() == chunkSize) {
+                results.addAll(importChunk(chunk, sendConfirmation));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(importChunk(chunk, sendConfirmation));
+        }
+
+        int imported = (int) results.stream().filter(result -> result.status() == Status.IMPORTED).count();
+        return new UserImportReportDTO(results.size(), imported, results.size() - imported, results);
+    }
+
+    private List<UserImportRowResultDTO> importChunk(List<ParsedRow> chunk, boolean sendConfirmation) {
+        UserImportRowResultDTO[] results = new UserImportRowResultDTO[chunk.size()];
+
+        // hash every valid row of the chunk in parallel
+        List<Future<String>> hashes = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            ParsedRow parsed = chunk.get(i);
+            String error = parsed.error() != null ? parsed.error() : validate(parsed.row());
+            if (error != null) {
+                results[i] = new UserImportRowResultDTO(parsed.line(), parsed.email(), Status.INVALID, error);
+                hashes.add(null);
+                continue;
+            }
+
+            UserImportRowDTO row = parsed.row();
+            hashes.add(hasText(row.passwordHash())
+                    ? CompletableFuture.completedFuture(row.passwordHash())
+                    : hashingPool.submit(() -> hashingEncoder.encode(row.password())));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> batch = new ArrayList<>(chunk.size());
+        List<Integer> batchRows = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            if (hashes.get(i) == null) continue;
+
+            ParsedRow parsed = chunk.get(i);
+            String hash;
+            try {
+                hash = hashes.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while hashing passwords", e);
+            } catch (ExecutionException e) {
+                results[i] = new UserImportRowResultDTO(parsed.line(), parsed.email(), Status.INVALID, "Password could not be hashed");
+                continue;
+            }
+
+            UserImportRowDTO row = parsed.row();
+            batch.add(new Object[]{TimeOrderedUuidGenerator.next(), row.email(), hash, role(row).name(), verified(row), now, now});
+            batchRows.add(i);
+        }
+
+        if (!batch.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                int[] inserted = jdbcTemplate.batchUpdate(INSERT_USER, batch);
+
+                Map<String, String> confirmations = new LinkedHashMap<>();
+                for (int k = 0; k < inserted.length; k++) {
+                    int i = batchRows.get(k);
+                    ParsedRow parsed = chunk.get(i);
+                    if (inserted[k] == 0) {
+                        results[i] = new UserImportRowResultDTO(parsed.line(), parsed.email(), Status.EMAIL_EXISTS, "Email already registered");
+                        continue;
+                    }
+
+                    results[i] = new UserImportRowResultDTO(parsed.line(), parsed.email(), Status.IMPORTED, null);
+                    if (sendConfirmation && !verified(parsed.row())) {
+                        confirmations.put(parsed.email(), tokenService.generateEmailConfirmationToken(parsed.email()));
+                    }
+                }
+
+                mailService.enqueueEmailConfirmations(confirmations);
+            });
+
+            for (UserImportRowResultDTO result : results) {
+                if (result.status() == Status.IMPORTED) {
+                    readYourWritesGuard.recordWrite(result.email());
+                }
+            }
+        }
+
+        for (UserImportRowResultDTO result : results) {
+            meterRegistry.counter("auth.users.imported", "status", result.status().name().toLowerCase()).increment();
+        }
+        return Arrays.asList(results);
+    }
+
+    private static String validate(UserImportRowDTO row) {
+        if (!hasText(row.email()) || row.email().indexOf('@') < 1) {
+            return "Invalid email";
+        }
+        if (hasText(row.password()) == hasText(row.passwordHash())) {
+            return "Exactly one of password or passwordHash is required";
+        }
+        if (hasText(row.passwordHash()) && !BCRYPT_HASH.matcher(row.passwordHash()).matches()) {
+            return "passwordHash is not a BCrypt hash";
+        }
+        return null;
+    }
+
+    private ParsedRow parseJson(long line, String json) {
+        try {
+            UserImportRowDTO row = jsonMapper.readValue(json, UserImportRowDTO.class);
+            return new ParsedRow(line, row, null);
+        } catch (JacksonException e) {
+            return new ParsedRow(line, null, "Malformed JSON");
+        }
+    }
+
+    private static ParsedRow parseCsv(long line, String csv, Map<String, Integer> columns) {
+        List<String> fields = splitCsv(csv);
+        String email = field(fields, columns, "email");
+        try {
+            String role = field(fields, columns, "role");
+            String verified = field(fields, columns, "verified");
+            UserImportRowDTO row = new UserImportRowDTO(
+                    email,
+                    field(fields, columns, "password"),
+                    field(fields, columns, "password_hash"),
+                    role == null ? null : Role.valueOf(role.toUpperCase()),
+                    verified == null ? null : Boolean.parseBoolean(verified)
+            );
+            return new ParsedRow(line, row, null);
+        } catch (IllegalArgumentException e) {
+            return new ParsedRow(line, new UserImportRowDTO(email, null, null, null, null), "Unknown role");
+        }
+    }
+
+    private static Map<String, Integer> csvColumns(String header) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = splitCsv(header);
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim().toLowerCase();
+            columns.put(name.equals("passwordhash") ? "password_hash" : name, i);
+        }
+        return columns;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) return null;
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // RFC 4180 fields within one line: quoted fields may contain commas and doubled quotes
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static Role role(UserImportRowDTO row) {
+        return row.role() != null ? row.role() : Role.USER;
+    }
+
+    private static boolean verified(UserImportRowDTO row) {
+        return Boolean.TRUE.equals(row.verified());
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    @Override
+    public void destroy() {
+        hashingPool.shutdown();
+    }
+
+    private record ParsedRow(long line, UserImportRowDTO row, String error) {
+
+        String email() {
+            return row != null ? row.email() : null;
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.setup.authentication.services;
 
+import com.setup.authentication.config.ReadYourWritesGuard;
 import com.setup.authentication.domain.dto.RegisterRequestDTO;
 import com.setup.authentication.domain.entities.Role;
 import com.setup.authentication.domain.entities.User;
+import com.setup.authentication.domain.id.TimeOrderedUuidGenerator;
+import com.setup.authentication.exceptions.EmailExistException;
 import com.setup.authentication.repositories.UserRepository;
+import com.setup.authentication.security.TokenVersionCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -15,10 +20,14 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TokenVersionCache tokenVersionCache;
+    private final ReadYourWritesGuard readYourWritesGuard;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, TokenVersionCache tokenVersionCache, ReadYourWritesGuard readYourWritesGuard) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.tokenVersionCache = tokenVersionCache;
+        this.readYourWritesGuard = readYourWritesGuard;
     }
 
     public User createUser(RegisterRequestDTO registerRequestDTO) {
@@ -36,14 +45,38 @@ public class UserService {
         return user;
     }
 
+    /**
+     * Inserts a new user in one round trip, throwing EmailExistException when the email is taken.
+     */
+    public User registerUser(User user) {
+        user.setId(TimeOrderedUuidGenerator.next());
+
+        int inserted = userRepository.insertIfEmailAbsent(user.getId(), user.getEmail(), user.getPassword(),
+                user.getRole().name(), user.isVerified(), user.getCreatedAt(), user.getUpdatedAt());
+        if (inserted == 0) {
+            throw new EmailExistException("Email already registered");
+        }
+
+        readYourWritesGuard.recordWrite(user.getEmail());
+        return user;
+    }
+
+    @CacheEvict(cacheNames = UserRepository.USER_PRINCIPALS_BY_EMAIL_CACHE, key = "#user.email")
     public User saveUser(User user) {
         User savedUser = userRepository.save(user);
+        // logins and confirmations right after registration must not miss the row on a lagging replica
+        readYourWritesGuard.recordWrite(savedUser.getEmail());
         return savedUser;
     }
 
+    @CacheEvict(cacheNames = UserRepository.USER_PRINCIPALS_BY_EMAIL_CACHE, key = "#user.email")
     public void updatePassword(User user, String newPassword) {
         user.setPassword(passwordEncoder.encode(newPassword));
         user.setUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
+        readYourWritesGuard.recordWrite(user.getEmail());
+
+        // a new password logs out every existing session
+        tokenVersionCache.bump(user.getId());
     }
 }
@@ -0,0 +1,24 @@
+-- Moves refresh_tokens from the raw JWT (token) to its SHA-256 fingerprint (token_hash).
+-- Existing rows are backfilled with the same digest the application computes, so
+-- refresh tokens already handed out keep working.
+-- Idempotent: does nothing on a fresh database or once the token column is gone.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'refresh_tokens' AND column_name = 'token') THEN
+
+        ALTER TABLE refresh_tokens ADD COLUMN IF NOT EXISTS token_hash bytea;
+
+        UPDATE refresh_tokens
+        SET token_hash = sha256(convert_to(token, 'UTF8'))
+        WHERE token_hash IS NULL;
+
+        ALTER TABLE refresh_tokens ALTER COLUMN token_hash SET NOT NULL;
+        ALTER TABLE refresh_tokens DROP COLUMN token;
+
+        IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_refresh_tokens_token_hash') THEN
+            ALTER TABLE refresh_tokens ADD CONSTRAINT uk_refresh_tokens_token_hash UNIQUE (token_hash);
+        END IF;
+    END IF;
+END
+$$;
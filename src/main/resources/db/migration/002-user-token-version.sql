@@ -0,0 +1,4 @@
+-- Adds the per-user token version carried by every access and refresh token ("ver" claim).
+-- Existing users start at 0, the version tokens without the claim are read as.
+-- Idempotent: does nothing on a fresh database (Hibernate creates the column) or once it exists.
+ALTER TABLE IF EXISTS users ADD COLUMN IF NOT EXISTS token_version integer NOT NULL DEFAULT 0
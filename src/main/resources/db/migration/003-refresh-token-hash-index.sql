@@ -0,0 +1,18 @@
+-- Refresh tokens are looked up by fingerprint through a plain index. The former unique
+-- constraint on token_hash alone cannot exist once refresh_tokens is partitioned by expiry_date
+-- (db/partitioning), and tokens carry a random jti, so their fingerprints never collide anyway.
+-- The partitioned table gets its index from the conversion script, a fresh database from the
+-- entity mapping.
+-- Idempotent: does nothing on a fresh database, on a partitioned table, or once converted.
+DO $$
+BEGIN
+    IF to_regclass('refresh_tokens') IS NOT NULL
+       AND NOT EXISTS (SELECT 1 FROM pg_partitioned_table pt
+                       JOIN pg_class c ON c.oid = pt.partrelid
+                       WHERE c.relname = 'refresh_tokens') THEN
+
+        CREATE INDEX IF NOT EXISTS idx_refresh_tokens_token_hash ON refresh_tokens (token_hash);
+        ALTER TABLE refresh_tokens DROP CONSTRAINT IF EXISTS uk_refresh_tokens_token_hash;
+    END IF;
+END
+$$;
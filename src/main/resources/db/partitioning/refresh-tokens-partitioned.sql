@@ -0,0 +1,52 @@
+-- Converts refresh_tokens into a table range-partitioned by expiry_date, one partition per month.
+-- Expired months are then removed by dropping their partition instead of deleting rows.
+-- Partitioned tables need the partition key in every unique constraint, so the primary key
+-- becomes (id, expiry_date). The fingerprint gets a plain index, created on every partition.
+-- Runs in one transaction and copies every row while holding the table locked: on large tables
+-- run it with psql as a migration step before enabling partitioning, then startup skips it.
+-- Partition bounds are UTC month starts with an explicit offset, independent of the session time zone.
+-- Idempotent: does nothing once refresh_tokens is partitioned.
+DO $$
+DECLARE
+    month_start date;
+    last_month date;
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table pt
+               JOIN pg_class c ON c.oid = pt.partrelid
+               WHERE c.relname = 'refresh_tokens') THEN
+        RETURN;
+    END IF;
+
+    CREATE TABLE refresh_tokens_partitioned (
+        id uuid NOT NULL,
+        token_hash bytea NOT NULL,
+        user_id uuid NOT NULL,
+        expiry_date timestamp(6) with time zone NOT NULL,
+        created_at timestamp(6) with time zone NOT NULL,
+        revoked boolean NOT NULL,
+        rotated_at timestamp(6) with time zone
+    ) PARTITION BY RANGE (expiry_date);
+
+    -- one partition per month from the oldest stored token to two months ahead
+    SELECT date_trunc('month', coalesce(min(expiry_date), now()) AT TIME ZONE 'UTC')::date INTO month_start FROM refresh_tokens;
+    last_month := (date_trunc('month', now() AT TIME ZONE 'UTC') + interval '2 months')::date;
+    WHILE month_start <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF refresh_tokens_partitioned FOR VALUES FROM (timestamptz %L) TO (timestamptz %L)',
+                       'refresh_tokens_p' || to_char(month_start, 'YYYYMM'),
+                       month_start || ' 00:00:00+00', (month_start + interval '1 month')::date || ' 00:00:00+00');
+        month_start := (month_start + interval '1 month')::date;
+    END LOOP;
+    CREATE TABLE refresh_tokens_default PARTITION OF refresh_tokens_partitioned DEFAULT;
+
+    INSERT INTO refresh_tokens_partitioned (id, token_hash, user_id, expiry_date, created_at, revoked, rotated_at)
+    SELECT id, token_hash, user_id, expiry_date, created_at, revoked, rotated_at FROM refresh_tokens;
+
+    DROP TABLE refresh_tokens;
+    ALTER TABLE refresh_tokens_partitioned RENAME TO refresh_tokens;
+
+    ALTER TABLE refresh_tokens ADD CONSTRAINT refresh_tokens_pkey PRIMARY KEY (id, expiry_date);
+    CREATE INDEX idx_refresh_tokens_token_hash ON refresh_tokens (token_hash);
+    ALTER TABLE refresh_tokens ADD CONSTRAINT fk_refresh_tokens_user FOREIGN KEY (user_id) REFERENCES users (id);
+    CREATE INDEX idx_refresh_tokens_expiry_date ON refresh_tokens (expiry_date);
+END
+$$;
@@ -0,0 +1,111 @@
+package com.setup.authentication.security;
+
+import com.setup.authentication.domain.entities.RevokedAccessToken;
+import com.setup.authentication.repositories.RevokedAccessTokenRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AccessTokenDenylistTests {
+
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(10);
+
+    private final RevokedAccessTokenRepository repository = mock(RevokedAccessTokenRepository.class);
+    private final AccessTokenDenylist denylist = new AccessTokenDenylist(repository, 1000, 0.01, SYNC_OVERLAP);
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void revokedTokenIsDeniedRightAwayOutsideATransaction() {
+        UUID jti = UUID.randomUUID();
+
+        denylist.revoke(jti, Instant.now().plusSeconds(60));
+
+        assertThat(denylist.isRevoked(jti)).isTrue();
+        assertThat(denylist.isRevoked(UUID.randomUUID())).isFalse();
+    }
+
+    @Test
+    void revocationInsideATransactionOnlyAppliesOnCommit() {
+        UUID committed = UUID.randomUUID();
+        UUID rolledBack = UUID.randomUUID();
+
+        TransactionSynchronizationManager.initSynchronization();
+        denylist.revoke(committed, Instant.now().plusSeconds(60));
+        assertThat(denylist.isRevoked(committed)).isFalse();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        TransactionSynchronizationManager.initSynchronization();
+        denylist.revoke(rolledBack, Instant.now().plusSeconds(60));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(denylist.isRevoked(committed)).isTrue();
+        assertThat(denylist.isRevoked(rolledBack)).isFalse();
+    }
+
+    @Test
+    void syncReplaysRowsCommittedLateWithinTheOverlap() {
+        Instant watermark = Instant.now().minusSeconds(30);
+        UUID first = UUID.randomUUID();
+        when(repository.findByRevokedAtAfterAndExpiresAtAfterOrderByRevokedAt(eq(Instant.EPOCH.minus(SYNC_OVERLAP)), any()))
+                .thenReturn(List.of(entry(first, watermark)));
+        denylist.sync();
+
+        // revoked before the watermark by a transaction that committed after the previous sync
+        UUID late = UUID.randomUUID();
+        when(repository.findByRevokedAtAfterAndExpiresAtAfterOrderByRevokedAt(eq(watermark.minus(SYNC_OVERLAP)), any()))
+                .thenReturn(List.of(entry(late, watermark.minusSeconds(5)), entry(first, watermark)));
+        denylist.sync();
+
+        assertThat(denylist.isRevoked(first)).isTrue();
+        assertThat(denylist.isRevoked(late)).isTrue();
+    }
+
+    @Test
+    void evictionDropsExpiredTokensAndKeepsTheRestDenied() {
+        UUID expiring = UUID.randomUUID();
+        UUID active = UUID.randomUUID();
+        when(repository.findByRevokedAtAfterAndExpiresAtAfterOrderByRevokedAt(any(), any())).thenReturn(List.of(
+                new RevokedAccessToken(expiring, Instant.now().plusMillis(50), Instant.now()),
+                new RevokedAccessToken(active, Instant.now().plusSeconds(60), Instant.now())));
+        denylist.sync();
+
+        await(Duration.ofMillis(100));
+        denylist.evictExpired();
+
+        assertThat(denylist.isRevoked(expiring)).isFalse();
+        // the rebuilt bloom filter still holds the remaining entries
+        assertThat(denylist.isRevoked(active)).isTrue();
+    }
+
+    private static RevokedAccessToken entry(UUID jti, Instant revokedAt) {
+        return new RevokedAccessToken(jti, Instant.now().plusSeconds(60), revokedAt);
+    }
+
+    private static void await(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
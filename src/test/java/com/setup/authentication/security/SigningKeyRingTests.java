@@ -0,0 +1,85 @@
+package com.setup.authentication.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SigningKeyRingTests {
+
+    private static final Duration PERIOD = Duration.ofHours(1);
+    private static final Duration MAX_TOKEN_LIFETIME = Duration.ofHours(2);
+
+    // starts exactly at the beginning of a period
+    private static final Instant START = Instant.ofEpochSecond(1000 * PERIOD.toSeconds());
+
+    @Test
+    void keysOfPreviousPeriodsVerifyForAsLongAsATokenCanLive() {
+        SigningKeyRing ring = ring(List.of("secret"), true);
+        ring.rotate(START);
+        String token = ring.sign(JWT.create().withSubject("user"));
+
+        ring.rotate(START.plus(PERIOD.multipliedBy(2)));
+        assertThat(ring.verify(token).getSubject()).isEqualTo("user");
+
+        ring.rotate(START.plus(PERIOD.multipliedBy(3)));
+        assertThatThrownBy(() -> ring.verify(token)).isInstanceOf(JWTVerificationException.class);
+    }
+
+    @Test
+    void nextPeriodKeyVerifiesOnANodeThatHasNotRolledOverYet() {
+        SigningKeyRing ahead = ring(List.of("secret"), true);
+        SigningKeyRing behind = ring(List.of("secret"), true);
+        ahead.rotate(START.plus(PERIOD));
+        behind.rotate(START.plus(PERIOD).minusSeconds(1));
+
+        String token = ahead.sign(JWT.create().withSubject("user"));
+
+        assertThat(ahead.currentKeyId()).isNotEqualTo(behind.currentKeyId());
+        assertThat(behind.verify(token).getSubject()).isEqualTo("user");
+    }
+
+    @Test
+    void tokensOfARetiredSecretStillVerify() {
+        SigningKeyRing before = ring(List.of("old"), true);
+        SigningKeyRing after = ring(List.of("new", "old"), true);
+        before.rotate(START);
+        after.rotate(START);
+
+        String token = before.sign(JWT.create().withSubject("user"));
+
+        assertThat(after.currentKeyId()).isNotEqualTo(before.currentKeyId());
+        assertThat(after.verify(token).getSubject()).isEqualTo("user");
+        assertThatThrownBy(() -> ring(List.of("new"), true).verify(token)).isInstanceOf(JWTVerificationException.class);
+    }
+
+    @Test
+    void legacyTokensWithoutKeyIdVerifyAgainstTheRawSecrets() {
+        String token = JWT.create().withSubject("user").sign(Algorithm.HMAC256("old"));
+
+        assertThat(ring(List.of("new", "old"), true).verify(token).getSubject()).isEqualTo("user");
+        assertThatThrownBy(() -> ring(List.of("new"), true).verify(token)).isInstanceOf(JWTVerificationException.class);
+    }
+
+    @Test
+    void legacyTokensAreRejectedOnceNoLongerAccepted() {
+        String token = JWT.create().withSubject("user").sign(Algorithm.HMAC256("secret"));
+
+        assertThatThrownBy(() -> ring(List.of("secret"), false).verify(token))
+                .isInstanceOf(JWTVerificationException.class)
+                .hasMessage("Token has no key id");
+    }
+
+    private static SigningKeyRing ring(List<String> secrets, boolean acceptLegacy) {
+        return SigningKeyRing.rotating("access", secrets, PERIOD, MAX_TOKEN_LIFETIME, acceptLegacy,
+                algorithm -> JWT.require(algorithm).build(), ObservationRegistry.NOOP);
+    }
+}
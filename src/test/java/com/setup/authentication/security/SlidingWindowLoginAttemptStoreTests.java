@@ -0,0 +1,79 @@
+package com.setup.authentication.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowLoginAttemptStoreTests {
+
+    private static final Duration WINDOW = Duration.ofMinutes(1);
+    private static final long WINDOW_MILLIS = WINDOW.toMillis();
+
+    // starts exactly at the beginning of a window
+    private final AtomicLong now = new AtomicLong(1000 * WINDOW_MILLIS);
+    private final SlidingWindowLoginAttemptStore store = new SlidingWindowLoginAttemptStore(1000, now::get);
+
+    @Test
+    void countsEveryAttemptWithinTheWindow() {
+        assertThat(store.recordAttempt("ip:10.0.0.1", WINDOW)).isEqualTo(1);
+        assertThat(store.recordAttempt("ip:10.0.0.1", WINDOW)).isEqualTo(2);
+        assertThat(store.recordAttempt("ip:10.0.0.1", WINDOW)).isEqualTo(3);
+
+        assertThat(store.recordAttempt("ip:10.0.0.2", WINDOW)).isEqualTo(1);
+    }
+
+    @Test
+    void previousWindowIsWeightedByItsRemainingOverlap() {
+        for (int i = 0; i < 10; i++) {
+            store.recordAttempt("email:user@example.com", WINDOW);
+        }
+
+        // a quarter into the next window, three quarters of the previous one still count
+        now.addAndGet(WINDOW_MILLIS + WINDOW_MILLIS / 4);
+        assertThat(store.recordAttempt("email:user@example.com", WINDOW)).isEqualTo(1 + 8);
+
+        // three quarters in, a quarter of the previous window is left
+        now.addAndGet(WINDOW_MILLIS / 2);
+        assertThat(store.recordAttempt("email:user@example.com", WINDOW)).isEqualTo(2 + 3);
+    }
+
+    @Test
+    void countsRestartOnceTheWindowHasFullyPassed() {
+        for (int i = 0; i < 10; i++) {
+            store.recordAttempt("ip:10.0.0.1", WINDOW);
+        }
+
+        now.addAndGet(2 * WINDOW_MILLIS);
+        assertThat(store.recordAttempt("ip:10.0.0.1", WINDOW)).isEqualTo(1);
+    }
+
+    @Test
+    void windowLengthsAreCountedSeparately() {
+        store.recordAttempt("ip:10.0.0.1", WINDOW);
+        store.recordAttempt("ip:10.0.0.1", WINDOW);
+
+        assertThat(store.recordAttempt("ip:10.0.0.1", Duration.ofMinutes(5))).isEqualTo(1);
+    }
+
+    @Test
+    void floodOfDistinctKeysNeitherThrottlesAFreshKeyNorGrowsPastTheBound() {
+        for (int i = 0; i < 200_000; i++) {
+            store.recordAttempt("ip:stuffing-" + i, WINDOW);
+        }
+
+        assertThat(store.recordAttempt("email:legitimate@example.com", WINDOW)).isEqualTo(1);
+        assertThat(store.recordAttempt("email:legitimate@example.com", WINDOW)).isEqualTo(2);
+        assertThat(store.trackedKeys(WINDOW)).isLessThanOrEqualTo(1000);
+    }
+
+    @Test
+    void idleKeysExpire() {
+        store.recordAttempt("ip:10.0.0.1", WINDOW);
+
+        now.addAndGet(3 * WINDOW_MILLIS);
+        assertThat(store.trackedKeys(WINDOW)).isZero();
+    }
+}
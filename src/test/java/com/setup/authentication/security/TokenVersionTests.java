@@ -0,0 +1,104 @@
+package com.setup.authentication.security;
+
+import com.auth0.jwt.JWT;
+import com.setup.authentication.config.ReadYourWritesGuard;
+import com.setup.authentication.domain.entities.Role;
+import com.setup.authentication.exceptions.RevokedAccessTokenException;
+import com.setup.authentication.repositories.RevokedAccessTokenRepository;
+import com.setup.authentication.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenVersionTests {
+
+    private final UUID userId = UUID.randomUUID();
+    private final AtomicInteger storedVersion = new AtomicInteger();
+
+    private TokenVersionCache tokenVersionCache;
+    private TokenService tokenService;
+
+    @BeforeEach
+    void setUp() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findTokenVersionById(any(UUID.class))).thenAnswer(invocation -> storedVersion.get());
+        when(userRepository.incrementTokenVersion(any(UUID.class))).thenAnswer(invocation -> {
+            storedVersion.incrementAndGet();
+            return 1;
+        });
+
+        tokenVersionCache = new TokenVersionCache(userRepository, new ReadYourWritesGuard(Duration.ofSeconds(5), 1000),
+                1000, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        tokenService = new TokenService(
+                new VerifiedTokenCache(true, 1000, new SimpleMeterRegistry()),
+                new AccessTokenDenylist(mock(RevokedAccessTokenRepository.class), 1000, 0.01, Duration.ofSeconds(10)),
+                tokenVersionCache,
+                new AccessTokenSigningKeys(AccessTokenSigningKeys.SigningAlgorithm.HS256, "", "", new DefaultResourceLoader()),
+                "secret", "refreshSecret", "emailSecret", "passwordResetSecret", 15, 10080,
+                Duration.ofDays(1), true, ObservationRegistry.NOOP);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void bumpRejectsTokensIssuedWithTheOlderVersion() {
+        String token = tokenService.generateToken(user(0));
+        assertThat(tokenService.validateToken(token).tokenVersion()).isZero();
+
+        tokenVersionCache.bump(userId);
+
+        // also when the verified claims come from the verified token cache
+        assertThatThrownBy(() -> tokenService.validateToken(token)).isInstanceOf(RevokedAccessTokenException.class);
+        assertThat(tokenService.validateToken(tokenService.generateToken(user(1))).tokenVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void tokensCarryTheVersionOfTheLoadedUserNotTheCachedOne() {
+        assertThat(tokenVersionCache.current(userId)).isZero();
+        storedVersion.set(3);
+
+        String token = tokenService.generateToken(user(3));
+
+        assertThat(tokenService.refreshTokenVersion(tokenService.generateRefreshToken(user(3)))).isEqualTo(3);
+        assertThat(JWT.decode(token).getClaim("ver").asInt()).isEqualTo(3);
+    }
+
+    @Test
+    void bumpInsideATransactionDropsTheCachedVersionOnCommit() {
+        String token = tokenService.generateToken(user(0));
+        tokenService.validateToken(token);
+
+        TransactionSynchronizationManager.initSynchronization();
+        tokenVersionCache.bump(userId);
+        assertThat(tokenVersionCache.isCurrent(userId, 0)).isTrue();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(tokenVersionCache.isCurrent(userId, 0)).isFalse();
+        assertThatThrownBy(() -> tokenService.validateToken(token)).isInstanceOf(RevokedAccessTokenException.class);
+    }
+
+    private UserCredentials user(int tokenVersion) {
+        return new UserCredentials(userId, "user@example.com", "hash", Role.USER, true, tokenVersion);
+    }
+}
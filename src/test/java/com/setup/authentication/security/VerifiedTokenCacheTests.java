@@ -0,0 +1,62 @@
+package com.setup.authentication.security;
+
+import com.setup.authentication.domain.dto.TokenRequestDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VerifiedTokenCacheTests {
+
+    private final AtomicLong now = new AtomicLong(Instant.parse("2026-01-01T00:00:00Z").toEpochMilli());
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(true, 100, new SimpleMeterRegistry(), now::get);
+
+    @Test
+    void servesTheVerifiedClaimsUntilExp() {
+        TokenRequestDTO claims = claimsExpiringIn(60_000);
+        cache.put("token", claims);
+
+        now.addAndGet(59_999);
+        assertThat(cache.get("token")).isEqualTo(claims);
+    }
+
+    @Test
+    void rejectsTheEntryFromExpOn() {
+        cache.put("token", claimsExpiringIn(60_000));
+
+        now.addAndGet(60_000);
+        assertThat(cache.get("token")).isNull();
+    }
+
+    @Test
+    void tokensAreNotConfused() {
+        cache.put("token", claimsExpiringIn(60_000));
+
+        assertThat(cache.get("other-token")).isNull();
+    }
+
+    @Test
+    void claimsWithoutExpAreNotCached() {
+        cache.put("token", new TokenRequestDTO("sub", "user@example.com", "access", null));
+
+        assertThat(cache.get("token")).isNull();
+    }
+
+    @Test
+    void disabledCacheKeepsNothing() {
+        VerifiedTokenCache disabled = new VerifiedTokenCache(false, 100, new SimpleMeterRegistry(), now::get);
+        disabled.put("token", claimsExpiringIn(60_000));
+
+        assertThat(disabled.get("token")).isNull();
+    }
+
+    private TokenRequestDTO claimsExpiringIn(long millis) {
+        Instant issuedAt = Instant.ofEpochMilli(now.get());
+        return new TokenRequestDTO("user@example.com", "user@example.com", "access", null,
+                UUID.randomUUID(), UUID.randomUUID(), issuedAt, issuedAt.plusMillis(millis), 0);
+    }
+}
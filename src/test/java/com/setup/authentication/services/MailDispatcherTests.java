@@ -0,0 +1,105 @@
+package com.setup.authentication.services;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.setup.authentication.domain.dto.MailDTO;
+import com.setup.authentication.domain.entities.MailOutbox;
+import com.setup.authentication.domain.entities.MailStatus;
+import com.setup.authentication.repositories.MailOutboxRepository;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@SpringBootTest(properties = {
+        // the GreenMail server below
+        "spring.mail.host=localhost",
+        "spring.mail.port=3025",
+        "spring.mail.password=",
+        "spring.mail.properties.mail.smtp.auth=false",
+        "spring.mail.properties.mail.smtp.starttls.enable=false",
+        "spring.mail.properties.mail.smtp.starttls.required=false",
+        // the scheduled run only fires once at startup, the tests dispatch by hand
+        "mail.outbox.poll-interval=3600000",
+        "mail.outbox.max-attempts=2",
+        "mail.outbox.backoff=30s"
+})
+@ActiveProfiles("test")
+class MailDispatcherTests {
+
+    @RegisterExtension
+    static GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private MailDispatcher mailDispatcher;
+
+    @Autowired
+    private MailService mailService;
+
+    @Autowired
+    private MailOutboxRepository mailOutboxRepository;
+
+    @BeforeEach
+    void emptyOutbox() {
+        mailOutboxRepository.deleteAll();
+    }
+
+    @Test
+    void pendingMailIsSentAndMarkedSent() throws Exception {
+        mailService.enqueue(new MailDTO("test@localhost", "user@example.com", "Subject", "Body"));
+
+        mailDispatcher.dispatch();
+
+        MimeMessage[] received = smtp.getReceivedMessages();
+        assertThat(received).hasSize(1);
+        assertThat(received[0].getAllRecipients()[0].toString()).isEqualTo("user@example.com");
+
+        MailOutbox mail = onlyMail();
+        assertThat(mail.getStatus()).isEqualTo(MailStatus.SENT);
+        assertThat(mail.getAttempts()).isEqualTo(1);
+        assertThat(mail.getSentAt()).isNotNull();
+        assertThat(mail.getLeasedUntil()).isNull();
+    }
+
+    @Test
+    void failedMailIsRetriedWithBackoffThenAbandoned() {
+        smtp.stop();
+        mailService.enqueue(new MailDTO("test@localhost", "user@example.com", "Subject", "Body"));
+
+        Instant firstAttempt = Instant.now();
+        mailDispatcher.dispatch();
+
+        MailOutbox mail = onlyMail();
+        assertThat(mail.getStatus()).isEqualTo(MailStatus.PENDING);
+        assertThat(mail.getAttempts()).isEqualTo(1);
+        assertThat(mail.getLastError()).isNotNull();
+        assertThat(mail.getLeasedUntil()).isNull();
+        assertThat(mail.getNextAttemptAt()).isCloseTo(firstAttempt.plus(Duration.ofSeconds(30)), within(Duration.ofSeconds(5)));
+
+        // not due yet, so the next run leaves it alone
+        mailDispatcher.dispatch();
+        assertThat(onlyMail().getAttempts()).isEqualTo(1);
+
+        mail.setNextAttemptAt(Instant.now().minusSeconds(1));
+        mailOutboxRepository.save(mail);
+        mailDispatcher.dispatch();
+
+        mail = onlyMail();
+        assertThat(mail.getStatus()).isEqualTo(MailStatus.FAILED);
+        assertThat(mail.getAttempts()).isEqualTo(2);
+    }
+
+    private MailOutbox onlyMail() {
+        assertThat(mailOutboxRepository.count()).isEqualTo(1);
+        return mailOutboxRepository.findAll().getFirst();
+    }
+}
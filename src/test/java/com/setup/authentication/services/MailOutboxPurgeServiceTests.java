@@ -0,0 +1,68 @@
+package com.setup.authentication.services;
+
+import com.setup.authentication.domain.entities.MailOutbox;
+import com.setup.authentication.domain.entities.MailStatus;
+import com.setup.authentication.repositories.MailOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "mail.outbox.retention=7d",
+        "mail.outbox.purge.batch-size=2"
+})
+@ActiveProfiles("test")
+class MailOutboxPurgeServiceTests {
+
+    @Autowired
+    private MailOutboxPurgeService mailOutboxPurgeService;
+
+    @Autowired
+    private MailOutboxRepository mailOutboxRepository;
+
+    @BeforeEach
+    void emptyOutbox() {
+        mailOutboxRepository.deleteAll();
+    }
+
+    @Test
+    void deletesFinishedMailsPastRetentionOnly() {
+        Instant old = Instant.now().minus(Duration.ofDays(8));
+        Instant recent = Instant.now().minus(Duration.ofDays(1));
+
+        MailOutbox oldSent = mail(MailStatus.SENT, old);
+        MailOutbox oldFailed = mail(MailStatus.FAILED, old);
+        MailOutbox oldSent2 = mail(MailStatus.SENT, old);
+        MailOutbox oldPending = mail(MailStatus.PENDING, old);
+        MailOutbox recentSent = mail(MailStatus.SENT, recent);
+
+        // three rows in batches of two
+        assertThat(mailOutboxPurgeService.purge()).isEqualTo(3);
+
+        assertThat(mailOutboxRepository.findAllById(
+                List.of(oldSent.getId(), oldFailed.getId(), oldSent2.getId()))).isEmpty();
+        assertThat(mailOutboxRepository.findById(oldPending.getId())).isPresent();
+        assertThat(mailOutboxRepository.findById(recentSent.getId())).isPresent();
+    }
+
+    private MailOutbox mail(MailStatus status, Instant createdAt) {
+        MailOutbox mail = new MailOutbox();
+        mail.setSender("test@localhost");
+        mail.setRecipient("user@example.com");
+        mail.setSubject("Subject");
+        mail.setBody("Body");
+        mail.setStatus(status);
+        mail.setCreatedAt(createdAt);
+        // pending mails are due in the future, so a dispatch run cannot pick them up
+        mail.setNextAttemptAt(Instant.now().plus(Duration.ofDays(1)));
+        return mailOutboxRepository.save(mail);
+    }
+}
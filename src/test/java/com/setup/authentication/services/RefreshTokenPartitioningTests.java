@@ -0,0 +1,107 @@
+package com.setup.authentication.services;
+
+import com.setup.authentication.domain.dto.RegisterRequestDTO;
+import com.setup.authentication.domain.entities.RefreshToken;
+import com.setup.authentication.domain.entities.User;
+import com.setup.authentication.repositories.RefreshTokenRepository;
+import com.setup.authentication.security.TokenDigest;
+import com.setup.authentication.security.UserCredentials;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "refresh-token.partitioning.enabled=true"
+})
+@ActiveProfiles("test")
+class RefreshTokenPartitioningTests {
+
+    @Autowired
+    private RefreshTokenPartitionManager partitionManager;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void refreshTokensTableIsPartitionedByMonth() {
+        Integer partitioned = jdbcTemplate.queryForObject("""
+                SELECT count(*) FROM pg_partitioned_table pt
+                JOIN pg_class c ON c.oid = pt.partrelid
+                WHERE c.relname = 'refresh_tokens'
+                """, Integer.class);
+
+        assertThat(partitioned).isEqualTo(1);
+        assertThat(partitionExists(YearMonth.now(ZoneOffset.UTC))).isTrue();
+        assertThat(partitionExists(YearMonth.now(ZoneOffset.UTC).plusMonths(1))).isTrue();
+    }
+
+    @Test
+    void expiredMonthIsDroppedWhileActiveTokensStayReachable() {
+        User user = userService.saveUser(userService.createUser(
+                new RegisterRequestDTO("partitioning-" + UUID.randomUUID() + "@example.com", "password")));
+
+        YearMonth expiredMonth = YearMonth.now(ZoneOffset.UTC).minusMonths(6);
+        partitionManager.createPartition(expiredMonth);
+
+        RefreshToken expired = new RefreshToken();
+        expired.setTokenHash(TokenDigest.sha256("expired-" + UUID.randomUUID()));
+        expired.setUser(user);
+        expired.setExpiryDate(expiredMonth.atDay(15).atStartOfDay(ZoneOffset.UTC).toInstant());
+        refreshTokenRepository.save(expired);
+
+        String activeToken = refreshTokenService.createRefreshToken(UserCredentials.of(user));
+
+        partitionManager.maintain();
+
+        assertThat(partitionExists(expiredMonth)).isFalse();
+        assertThat(refreshTokenRepository.findById(expired.getId())).isEmpty();
+        assertThat(refreshTokenService.findByToken(activeToken)).isPresent();
+    }
+
+    @Test
+    void rowsInTheDefaultPartitionMoveIntoANewMonthPartition() {
+        User user = userService.saveUser(userService.createUser(
+                new RegisterRequestDTO("partitioning-" + UUID.randomUUID() + "@example.com", "password")));
+
+        // beyond months-ahead, so no partition exists yet and the row lands in the default one
+        YearMonth farMonth = YearMonth.now(ZoneOffset.UTC).plusMonths(18);
+        RefreshToken future = new RefreshToken();
+        future.setTokenHash(TokenDigest.sha256("future-" + UUID.randomUUID()));
+        future.setUser(user);
+        future.setExpiryDate(farMonth.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+        refreshTokenRepository.save(future);
+
+        partitionManager.createPartition(farMonth);
+
+        String partition = jdbcTemplate.queryForObject(
+                "SELECT tableoid::regclass::text FROM refresh_tokens WHERE id = ?", String.class, future.getId());
+        assertThat(partition).isEqualTo("refresh_tokens_p" + String.format("%d%02d", farMonth.getYear(), farMonth.getMonthValue()));
+
+        jdbcTemplate.execute("ALTER TABLE refresh_tokens DETACH PARTITION " + partition);
+        jdbcTemplate.execute("DROP TABLE " + partition);
+    }
+
+    private boolean partitionExists(YearMonth month) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM pg_class WHERE relname = ?", Integer.class,
+                "refresh_tokens_p" + String.format("%d%02d", month.getYear(), month.getMonthValue()));
+        return count != null && count > 0;
+    }
+}
@@ -0,0 +1,114 @@
+package com.setup.authentication.services;
+
+import com.setup.authentication.domain.dto.RegisterRequestDTO;
+import com.setup.authentication.domain.entities.User;
+import com.setup.authentication.exceptions.RevokedRefreshTokenException;
+import com.setup.authentication.security.TokenDigest;
+import com.setup.authentication.security.TokenSubject;
+import com.setup.authentication.security.UserCredentials;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RefreshTokenRotationConcurrencyTests {
+
+    private static final int ROTATIONS = 16;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void parallelRotationsOfOneTokenLetExactlyOneSucceed() throws Exception {
+        User user = newUser();
+        String token = refreshTokenService.createRefreshToken(UserCredentials.of(user));
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Outcome>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(ROTATIONS)) {
+            for (int i = 0; i < ROTATIONS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        TokenSubject owner = refreshTokenService.rotate(token);
+                        assertThat(owner.id()).isEqualTo(user.getId());
+                        return Outcome.ROTATED;
+                    } catch (RevokedRefreshTokenException e) {
+                        return Outcome.REVOKED;
+                    }
+                }));
+            }
+            start.countDown();
+
+            List<Outcome> outcomes = new ArrayList<>();
+            for (Future<Outcome> result : results) {
+                outcomes.add(result.get());
+            }
+
+            assertThat(outcomes).containsOnlyOnce(Outcome.ROTATED);
+            assertThat(outcomes).filteredOn(outcome -> outcome == Outcome.REVOKED).hasSize(ROTATIONS - 1);
+        }
+
+        // the losers arrived within the reuse grace, a duplicate refresh keeps the other sessions
+        assertThat(tokenVersion(user)).isZero();
+    }
+
+    @Test
+    void reusingARotatedTokenAfterTheGraceLogsTheUserOutEverywhere() {
+        User user = newUser();
+        String token = refreshTokenService.createRefreshToken(UserCredentials.of(user));
+        String otherSession = refreshTokenService.createRefreshToken(UserCredentials.of(user));
+
+        refreshTokenService.rotate(token);
+        jdbcTemplate.update("UPDATE refresh_tokens SET rotated_at = rotated_at - interval '1 minute' WHERE token_hash = ?",
+                (Object) TokenDigest.sha256(token));
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(token)).isInstanceOf(RevokedRefreshTokenException.class);
+        assertThat(tokenVersion(user)).isEqualTo(1);
+        assertThatThrownBy(() -> refreshTokenService.rotate(otherSession)).isInstanceOf(RevokedRefreshTokenException.class);
+    }
+
+    @Test
+    void reusingATokenRevokedByLogoutLogsTheUserOutEverywhere() {
+        User user = newUser();
+        String token = refreshTokenService.createRefreshToken(UserCredentials.of(user));
+
+        refreshTokenService.revokeToken(token);
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(token)).isInstanceOf(RevokedRefreshTokenException.class);
+        assertThat(tokenVersion(user)).isEqualTo(1);
+    }
+
+    private User newUser() {
+        return userService.registerUser(userService.createUser(
+                new RegisterRequestDTO("rotation-" + UUID.randomUUID() + "@example.com", "password")));
+    }
+
+    private Integer tokenVersion(User user) {
+        return jdbcTemplate.queryForObject("SELECT token_version FROM users WHERE id = ?", Integer.class, user.getId());
+    }
+
+    private enum Outcome {
+        ROTATED, REVOKED
+    }
+}
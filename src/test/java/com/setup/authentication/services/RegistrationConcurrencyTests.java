@@ -0,0 +1,70 @@
+package com.setup.authentication.services;
+
+import com.setup.authentication.domain.dto.RegisterRequestDTO;
+import com.setup.authentication.exceptions.EmailExistException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RegistrationConcurrencyTests {
+
+    private static final int REGISTRATIONS = 32;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void parallelRegistrationsOfOneEmailLetExactlyOneSucceed() throws Exception {
+        String email = "concurrent-" + UUID.randomUUID() + "@example.com";
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Outcome>> results = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(REGISTRATIONS)) {
+            for (int i = 0; i < REGISTRATIONS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        authService.register(new RegisterRequestDTO(email, "password"));
+                        return Outcome.REGISTERED;
+                    } catch (EmailExistException e) {
+                        return Outcome.EMAIL_EXISTS;
+                    }
+                }));
+            }
+            start.countDown();
+
+            List<Outcome> outcomes = new ArrayList<>();
+            for (Future<Outcome> result : results) {
+                // any other exception (e.g. a unique constraint violation) fails the test here
+                outcomes.add(result.get());
+            }
+
+            assertThat(outcomes).containsOnlyOnce(Outcome.REGISTERED);
+            assertThat(outcomes).filteredOn(outcome -> outcome == Outcome.EMAIL_EXISTS).hasSize(REGISTRATIONS - 1);
+        }
+
+        Integer rows = jdbcTemplate.queryForObject("SELECT count(*) FROM users WHERE email = ?", Integer.class, email);
+        assertThat(rows).isEqualTo(1);
+    }
+
+    private enum Outcome {
+        REGISTERED, EMAIL_EXISTS
+    }
+}
@@ -0,0 +1,126 @@
+package com.setup.authentication.services;
+
+import com.setup.authentication.domain.dto.UserImportReportDTO;
+import com.setup.authentication.domain.dto.UserImportRowResultDTO;
+import com.setup.authentication.domain.dto.UserImportRowResultDTO.Status;
+import com.setup.authentication.domain.entities.Role;
+import com.setup.authentication.repositories.UserRepository;
+import com.setup.authentication.security.UserCredentials;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+// chunks of two, so duplicates are seen both within a batch and across batches
+@SpringBootTest(properties = "user-import.chunk-size=2")
+@ActiveProfiles("test")
+class UserImportServiceTests {
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private final String run = UUID.randomUUID().toString();
+
+    @Test
+    void ndjsonImportReportsDuplicateAndInvalidRows() throws Exception {
+        String hash = new BCryptPasswordEncoder().encode("hashed-password");
+        String input = String.join("\n",
+                "{\"email\":\"%s\",\"password\":\"password\"}".formatted(email("a")),
+                "{\"email\":\"%s\",\"password\":\"password\"}".formatted(email("a")),
+                "{\"email\":\"%s\",\"passwordHash\":\"%s\",\"role\":\"ADMIN\",\"verified\":true}".formatted(email("b"), hash),
+                "",
+                "{\"email\":\"%s\",\"password\":\"password\"}".formatted(email("a")),
+                "{\"email\":\"not-an-email\",\"password\":\"password\"}",
+                "{\"email\":\"%s\",\"password\":\"password\",\"passwordHash\":\"%s\"}".formatted(email("c"), hash),
+                "{\"email\":\"%s\",\"passwordHash\":\"plain\"}".formatted(email("d")),
+                "{\"email\":");
+
+        UserImportReportDTO report = userImportService.importUsers(reader(input), UserImportService.Format.NDJSON, false);
+
+        assertThat(report.total()).isEqualTo(8);
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.rejected()).isEqualTo(6);
+        assertThat(report.rows()).extracting(UserImportRowResultDTO::line, UserImportRowResultDTO::status).containsExactly(
+                tuple(1L, Status.IMPORTED),
+                tuple(2L, Status.EMAIL_EXISTS),
+                tuple(3L, Status.IMPORTED),
+                tuple(5L, Status.EMAIL_EXISTS),
+                tuple(6L, Status.INVALID),
+                tuple(7L, Status.INVALID),
+                tuple(8L, Status.INVALID),
+                tuple(9L, Status.INVALID));
+        assertThat(report.rows()).extracting(UserImportRowResultDTO::message).containsExactly(
+                null, "Email already registered", null, "Email already registered", "Invalid email",
+                "Exactly one of password or passwordHash is required", "passwordHash is not a BCrypt hash", "Malformed JSON");
+
+        UserCredentials plain = userRepository.findCredentialsByEmail(email("a"));
+        assertThat(passwordEncoder.matches("password", plain.passwordHash())).isTrue();
+        assertThat(plain.role()).isEqualTo(Role.USER);
+        assertThat(plain.verified()).isFalse();
+
+        UserCredentials prehashed = userRepository.findCredentialsByEmail(email("b"));
+        assertThat(prehashed.passwordHash()).isEqualTo(hash);
+        assertThat(prehashed.role()).isEqualTo(Role.ADMIN);
+        assertThat(prehashed.verified()).isTrue();
+
+        assertThat(userRepository.findCredentialsByEmail(email("c"))).isNull();
+        assertThat(userRepository.findCredentialsByEmail(email("d"))).isNull();
+    }
+
+    @Test
+    void csvImportReportsDuplicateAndInvalidRows() throws Exception {
+        String input = String.join("\n",
+                "Email,Password,Role,Verified",
+                "%s,\"pass,word\",admin,true".formatted(email("a")),
+                "%s,password,,".formatted(email("a")),
+                "%s,password,superuser,".formatted(email("b")),
+                "%s,,,".formatted(email("c")),
+                "%s,password,,false".formatted(email("d")));
+
+        UserImportReportDTO report = userImportService.importUsers(reader(input), UserImportService.Format.CSV, false);
+
+        assertThat(report.total()).isEqualTo(5);
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.rows()).extracting(UserImportRowResultDTO::status).containsExactly(
+                Status.IMPORTED, Status.EMAIL_EXISTS, Status.INVALID, Status.INVALID, Status.IMPORTED);
+        assertThat(report.rows().get(2).message()).isEqualTo("Unknown role");
+        assertThat(report.rows().get(2).email()).isEqualTo(email("b"));
+
+        // the quoted field keeps its comma
+        UserCredentials quoted = userRepository.findCredentialsByEmail(email("a"));
+        assertThat(passwordEncoder.matches("pass,word", quoted.passwordHash())).isTrue();
+        assertThat(quoted.role()).isEqualTo(Role.ADMIN);
+        assertThat(userRepository.findCredentialsByEmail(email("b"))).isNull();
+    }
+
+    @Test
+    void csvWithoutRowsImportsNothing() throws Exception {
+        UserImportReportDTO report = userImportService.importUsers(reader(""), UserImportService.Format.CSV, false);
+
+        assertThat(report.total()).isZero();
+        assertThat(report.rows()).isEmpty();
+    }
+
+    private String email(String name) {
+        return "import-" + name + "-" + run + "@example.com";
+    }
+
+    private static BufferedReader reader(String input) {
+        return new BufferedReader(new StringReader(input));
+    }
+}
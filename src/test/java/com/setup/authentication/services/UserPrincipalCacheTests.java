@@ -0,0 +1,60 @@
+package com.setup.authentication.services;
+
+import com.setup.authentication.domain.dto.RegisterRequestDTO;
+import com.setup.authentication.domain.entities.Role;
+import com.setup.authentication.domain.entities.User;
+import com.setup.authentication.repositories.UserRepository;
+import com.setup.authentication.security.AuthenticatedUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// a backend other than the default caffeine one, picked with spring.cache.type only
+@SpringBootTest(properties = "spring.cache.type=simple")
+@ActiveProfiles("test")
+class UserPrincipalCacheTests {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void principalsAreCachedInTheConfiguredBackendAndEvictedOnChange() {
+        assertThat(cacheManager).isInstanceOf(ConcurrentMapCacheManager.class);
+
+        String email = "cache-" + UUID.randomUUID() + "@example.com";
+        userService.registerUser(userService.createUser(new RegisterRequestDTO(email, "password")));
+
+        AuthenticatedUser principal = userRepository.findPrincipalByEmail(email);
+        assertThat(cacheManager.getCache(UserRepository.USER_PRINCIPALS_BY_EMAIL_CACHE).get(email, AuthenticatedUser.class))
+                .isEqualTo(principal);
+
+        User user = (User) userRepository.findByEmail(email);
+        user.setRole(Role.ADMIN);
+        userService.saveUser(user);
+
+        assertThat(cacheManager.getCache(UserRepository.USER_PRINCIPALS_BY_EMAIL_CACHE).get(email)).isNull();
+        assertThat(userRepository.findPrincipalByEmail(email).role()).isEqualTo(Role.ADMIN);
+    }
+
+    @Test
+    void principalsSurviveTheRedisCacheSerialization() {
+        JdkSerializationRedisSerializer serializer = new JdkSerializationRedisSerializer();
+        AuthenticatedUser principal = new AuthenticatedUser(UUID.randomUUID(), "user@example.com", Role.USER);
+
+        assertThat(serializer.deserialize(serializer.serialize(principal))).isEqualTo(principal);
+    }
+}